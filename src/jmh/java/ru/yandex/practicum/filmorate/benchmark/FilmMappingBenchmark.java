@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.dao.mappers.FilmRowMapper;
+import ru.yandex.practicum.filmorate.dto.film.FilmDto;
+import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
+import ru.yandex.practicum.filmorate.dto.film.genre.GenreRequest;
+import ru.yandex.practicum.filmorate.dto.film.rating.MpaRequest;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmMappingBenchmark {
+    @Param({"0", "3", "6"})
+    private int genreCount;
+
+    private final FilmRowMapper rowMapper = new FilmRowMapper();
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private ResultSet resultSet;
+    private Film film;
+    private FilmDto filmDto;
+    private NewFilmRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SimpleResultSet rows = new SimpleResultSet();
+        rows.addColumn("film_id", Types.BIGINT, 19, 0);
+        rows.addColumn("title", Types.VARCHAR, 255, 0);
+        rows.addColumn("description", Types.VARCHAR, 200, 0);
+        rows.addColumn("duration", Types.BIGINT, 19, 0);
+        rows.addColumn("release_date", Types.TIMESTAMP, 0, 0);
+        rows.addColumn("rating_id", Types.BIGINT, 19, 0);
+        rows.addColumn("rating_name", Types.VARCHAR, 10, 0);
+        rows.addColumn("like_count", Types.BIGINT, 19, 0);
+        rows.addRow(42L, "The Matrix", "A computer hacker learns about the true nature of reality", 136L,
+                Timestamp.valueOf("1999-03-31 00:00:00"), 4L, "R", 1250L);
+        rows.next();
+        resultSet = rows;
+
+        Set<Genre> genres = new LinkedHashSet<>();
+        Set<GenreRequest> genreRequests = new LinkedHashSet<>();
+        for (long id = 1; id <= genreCount; id++) {
+            genres.add(new Genre(id, "Genre " + id));
+            GenreRequest genreRequest = new GenreRequest();
+            genreRequest.setId(id);
+            genreRequests.add(genreRequest);
+        }
+        film = rowMapper.mapRow(resultSet, 0);
+        film.setGenres(genres);
+        filmDto = FilmMapper.mapToFilmDto(film);
+
+        MpaRequest mpa = new MpaRequest();
+        mpa.setId(4L);
+        request = new NewFilmRequest();
+        request.setName(film.getName());
+        request.setDescription(film.getDescription());
+        request.setReleaseDate(LocalDate.of(1999, 3, 31));
+        request.setDuration(film.getDuration());
+        request.setMpa(mpa);
+        request.setGenres(genreRequests);
+    }
+
+    @Benchmark
+    public Film mapRow() throws SQLException {
+        return rowMapper.mapRow(resultSet, 0);
+    }
+
+    @Benchmark
+    public FilmDto mapToFilmDto() {
+        return FilmMapper.mapToFilmDto(film);
+    }
+
+    @Benchmark
+    public Film mapToFilm() {
+        return FilmMapper.mapToFilm(request);
+    }
+
+    @Benchmark
+    public byte[] serializeFilmDto() throws Exception {
+        return objectMapper.writeValueAsBytes(filmDto);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.dto.user.UserDto;
+import ru.yandex.practicum.filmorate.mapper.UserMapper;
+import ru.yandex.practicum.filmorate.model.LongIdSet;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMappingBenchmark {
+    @Param({"0", "10", "1000"})
+    private int friendCount;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private User user;
+    private UserDto userDto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LongIdSet.Builder friends = LongIdSet.builder();
+        for (long id = 1; id <= friendCount; id++) {
+            friends.add(id * 7);
+        }
+        user = new User();
+        user.setId(1L);
+        user.setName("Neo");
+        user.setLogin("neo");
+        user.setEmail("neo@matrix.io");
+        user.setBirthday(LocalDate.of(1971, 9, 13));
+        user.setFriends(friends.build());
+        userDto = UserMapper.mapToUserDto(user);
+    }
+
+    @Benchmark
+    public UserDto mapToUserDto() {
+        return UserMapper.mapToUserDto(user);
+    }
+
+    @Benchmark
+    public byte[] serializeUserDto() throws Exception {
+        return objectMapper.writeValueAsBytes(userDto);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.RatingRepository;
+import ru.yandex.practicum.filmorate.storage.StorageReloadedEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class EntityVersions {
+    private final AtomicLong reloads = new AtomicLong();
+    private volatile String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final Map<Long, Long> films = new ConcurrentHashMap<>();
+    private final Map<Long, Long> users = new ConcurrentHashMap<>();
+    private final AtomicLong allFilms = new AtomicLong();
+    private final AtomicLong allUsers = new AtomicLong();
+    private final AtomicLong references = new AtomicLong();
+
+    public EntityVersions(GenreRepository genreRepository, RatingRepository ratingRepository) {
+        genreRepository.addRefreshListener(references::incrementAndGet);
+        ratingRepository.addRefreshListener(references::incrementAndGet);
+    }
+
+    @EventListener(StorageReloadedEvent.class)
+    public void resetEpoch() {
+        epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX) + '.' + reloads.incrementAndGet();
+    }
+
+    public void filmChanged(long id) {
+        films.merge(id, 1L, Long::sum);
+        allFilms.incrementAndGet();
+    }
+
+    public void userChanged(long id) {
+        users.merge(id, 1L, Long::sum);
+    }
+
+    public void userDeleted(long id) {
+        userChanged(id);
+        allUsers.incrementAndGet();
+    }
+
+    public String filmTag(long id) {
+        return tag("f" + id, references.get(), films.getOrDefault(id, 0L));
+    }
+
+    public String popularTag(int count, long rankingVersion) {
+        return tag("p" + count, references.get(), allFilms.get(), rankingVersion);
+    }
+
+    public String userTag(long id) {
+        return tag("u" + id, allUsers.get(), users.getOrDefault(id, 0L));
+    }
+
+    public String genresTag() {
+        return tag("g", references.get());
+    }
+
+    public String ratingsTag() {
+        return tag("m", references.get());
+    }
+
+    private String tag(String resource, long... versions) {
+        StringBuilder tag = new StringBuilder("\"").append(resource).append('-').append(epoch);
+        for (long version : versions) {
+            tag.append('-').append(Long.toString(version, Character.MAX_RADIX));
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.RatingRepository;
+import ru.yandex.practicum.filmorate.dto.film.FilmDto;
+import ru.yandex.practicum.filmorate.dto.film.genre.GenreDto;
+import ru.yandex.practicum.filmorate.storage.StorageReloadedEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+@Component
+public class FilmCache {
+    private static final Logger logger = LoggerFactory.getLogger(FilmCache.class);
+    private static final int ENTRY_BYTES = 160;
+    private static final int GENRE_BYTES = 72;
+    private static final int RATING_BYTES = 56;
+
+    private final GenreRepository genreRepository;
+    private final RatingRepository ratingRepository;
+    private final Cache<Long, FilmDto> films;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public FilmCache(GenreRepository genreRepository,
+                     RatingRepository ratingRepository,
+                     ObjectProvider<MeterRegistry> registry,
+                     @Value("${filmorate.cache.films.max-weight-bytes:67108864}") long maxWeightBytes) {
+        this.genreRepository = genreRepository;
+        this.ratingRepository = ratingRepository;
+        this.films = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, FilmDto film) -> weigh(film))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry.getIfAvailable(SimpleMeterRegistry::new), films, "films");
+    }
+
+    @PostConstruct
+    public void registerRefreshListeners() {
+        genreRepository.addRefreshListener(this::invalidateAll);
+        ratingRepository.addRefreshListener(this::invalidateAll);
+    }
+
+    public FilmDto get(long id, LongFunction<FilmDto> loader) {
+        return films.get(id, loader::apply);
+    }
+
+    public List<FilmDto> getAll(List<Long> ids, Function<List<Long>, List<FilmDto>> loader) {
+        Map<Long, FilmDto> found = new HashMap<>(films.getAllPresent(ids));
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            long seen = invalidations.get();
+            List<FilmDto> loaded = loader.apply(missing);
+            for (FilmDto film : loaded) {
+                found.put(film.getId(), film);
+                films.put(film.getId(), film);
+            }
+            if (invalidations.get() != seen) {
+                loaded.forEach(film -> films.asMap().remove(film.getId(), film));
+            }
+        }
+        List<FilmDto> ordered = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            FilmDto film = found.get(id);
+            if (film != null) {
+                ordered.add(film);
+            }
+        }
+        return ordered;
+    }
+
+    public void invalidate(long id) {
+        invalidations.incrementAndGet();
+        films.invalidate(id);
+    }
+
+    @EventListener(StorageReloadedEvent.class)
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        films.invalidateAll();
+        logger.info("Film cache cleared");
+    }
+
+    public CacheStats stats() {
+        return films.stats();
+    }
+
+    public void cleanUp() {
+        films.cleanUp();
+    }
+
+    public long estimatedSize() {
+        return films.estimatedSize();
+    }
+
+    private static int weigh(FilmDto film) {
+        int weight = ENTRY_BYTES + chars(film.getName()) + chars(film.getDescription());
+        Set<GenreDto> genres = film.getGenres();
+        if (genres != null) {
+            for (GenreDto genre : genres) {
+                weight += GENRE_BYTES + chars(genre.getName());
+            }
+        }
+        if (film.getMpa() != null) {
+            weight += RATING_BYTES + chars(film.getMpa().getName());
+        }
+        return weight;
+    }
+
+    private static int chars(String value) {
+        return value == null ? 0 : 2 * value.length();
+    }
+}
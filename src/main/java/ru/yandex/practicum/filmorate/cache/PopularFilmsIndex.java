@@ -0,0 +1,169 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.pagination.PageLimits;
+import ru.yandex.practicum.filmorate.storage.StorageReloadedEvent;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+@Component
+public class PopularFilmsIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PopularFilmsIndex.class);
+    private static final int MIN_SNAPSHOT_SIZE = 10;
+    private static final Comparator<Entry> BY_LIKES_DESC = Comparator.comparingLong(Entry::likeCount)
+            .reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final FilmStorage filmStorage;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(BY_LIKES_DESC);
+    private int snapshotSize = MIN_SNAPSHOT_SIZE;
+    private volatile long version;
+    private volatile Snapshot snapshot = new Snapshot(new long[0], true, null);
+
+    public PopularFilmsIndex(FilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @PostConstruct
+    @EventListener(StorageReloadedEvent.class)
+    public void reload() {
+        Map<Long, Long> likeCounts = filmStorage.getLikeCounts();
+        lock.lock();
+        try {
+            entries.clear();
+            ranking.clear();
+            likeCounts.forEach((filmId, likeCount) -> {
+                Entry entry = new Entry(filmId, likeCount);
+                entries.put(filmId, entry);
+                ranking.add(entry);
+            });
+            snapshot = buildSnapshot();
+            version++;
+        } finally {
+            lock.unlock();
+        }
+        logger.info("Popular films index loaded with {} films", likeCounts.size());
+    }
+
+    public void put(long filmId, long likeCount) {
+        update(filmId, current -> likeCount);
+    }
+
+    public void increment(long filmId) {
+        update(filmId, current -> current + 1);
+    }
+
+    public void decrement(long filmId) {
+        update(filmId, current -> Math.max(0, current - 1));
+    }
+
+    public void remove(long filmId) {
+        lock.lock();
+        try {
+            Entry current = entries.remove(filmId);
+            if (current != null) {
+                ranking.remove(current);
+                publish(current, null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Long> top(int count) {
+        int limit = Math.min(count, PageLimits.MAX_PAGE_SIZE);
+        Snapshot current = snapshot;
+        if (!current.covers(limit)) {
+            current = grow(limit);
+        }
+        return current.top(limit);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    private void update(long filmId, LongUnaryOperator likeCount) {
+        lock.lock();
+        try {
+            Entry current = entries.get(filmId);
+            Entry updated = new Entry(filmId, likeCount.applyAsLong(current == null ? 0 : current.likeCount()));
+            if (current != null) {
+                ranking.remove(current);
+            }
+            entries.put(filmId, updated);
+            ranking.add(updated);
+            publish(current, updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish(Entry previous, Entry updated) {
+        Snapshot current = snapshot;
+        if (current.affectedBy(previous) || current.affectedBy(updated)) {
+            snapshot = buildSnapshot();
+        }
+        version++;
+    }
+
+    private Snapshot grow(int count) {
+        lock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current.covers(count)) {
+                return current;
+            }
+            snapshotSize = Math.max(snapshotSize, count);
+            current = buildSnapshot();
+            snapshot = current;
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Snapshot buildSnapshot() {
+        int size = Math.min(snapshotSize, ranking.size());
+        long[] filmIds = new long[size];
+        Entry last = null;
+        Iterator<Entry> iterator = ranking.iterator();
+        for (int i = 0; i < size; i++) {
+            last = iterator.next();
+            filmIds[i] = last.filmId();
+        }
+        return new Snapshot(filmIds, size == ranking.size(), last);
+    }
+
+    private record Entry(long filmId, long likeCount) {
+    }
+
+    private record Snapshot(long[] filmIds, boolean complete, Entry last) {
+        boolean covers(int count) {
+            return complete || filmIds.length >= count;
+        }
+
+        boolean affectedBy(Entry entry) {
+            return entry != null && (complete || BY_LIKES_DESC.compare(entry, last) <= 0);
+        }
+
+        List<Long> top(int count) {
+            return LongStream.of(filmIds).limit(count).boxed().toList();
+        }
+    }
+}
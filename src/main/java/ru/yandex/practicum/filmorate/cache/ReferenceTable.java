@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+public final class ReferenceTable<T> {
+    private static final ReferenceTable<?> EMPTY = new ReferenceTable<>(new Object[0], List.of());
+
+    private final Object[] byId;
+    private final List<T> values;
+
+    private ReferenceTable(Object[] byId, List<T> values) {
+        this.byId = byId;
+        this.values = values;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ReferenceTable<T> empty() {
+        return (ReferenceTable<T>) EMPTY;
+    }
+
+    public static <T> ReferenceTable<T> of(List<T> values, ToLongFunction<T> idExtractor) {
+        long maxId = values.stream().mapToLong(idExtractor).max().orElse(-1);
+        if (maxId >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Reference id " + maxId + " is too large for an array-indexed table");
+        }
+        Object[] byId = new Object[(int) maxId + 1];
+        for (T value : values) {
+            long id = idExtractor.applyAsLong(value);
+            if (id < 0) {
+                throw new IllegalArgumentException("Reference id must not be negative: " + id);
+            }
+            byId[(int) id] = value;
+        }
+        return new ReferenceTable<>(byId, List.copyOf(values));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<T> get(long id) {
+        if (id < 0 || id >= byId.length) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((T) byId[(int) id]);
+    }
+
+    public boolean contains(long id) {
+        return id >= 0 && id < byId.length && byId[(int) id] != null;
+    }
+
+    public List<T> values() {
+        return values;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
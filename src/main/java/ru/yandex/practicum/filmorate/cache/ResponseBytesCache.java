@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+public class ResponseBytesCache {
+    private static final int MAX_ENTRIES = 256;
+    private static final int MIN_GZIP_BYTES = 256;
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, EncodedResponse> responses;
+
+    public ResponseBytesCache(ObjectMapper objectMapper, ObjectProvider<MeterRegistry> registry) {
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(MAX_ENTRIES)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry.getIfAvailable(SimpleMeterRegistry::new), responses, "responses");
+    }
+
+    public ResponseEntity<byte[]> respond(String key, String tag, WebRequest request, Supplier<?> body) {
+        boolean gzip = acceptsGzip(request);
+        if (request.checkNotModified(gzip ? gzipTag(tag) : tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        EncodedResponse response = responses.getIfPresent(key);
+        if (response == null || !response.tag().equals(tag)) {
+            response = encode(tag, body.get());
+            responses.put(key, response);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip && response.gzip() != null) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                    .contentLength(response.gzip().length)
+                    .body(response.gzip());
+        }
+        return builder.contentLength(response.json().length).body(response.json());
+    }
+
+    private EncodedResponse encode(String tag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new EncodedResponse(tag, json, json.length >= MIN_GZIP_BYTES ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize response", e);
+        }
+    }
+
+    private static String gzipTag(String tag) {
+        return tag.substring(0, tag.length() - 1) + "-gz\"";
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress response", e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ((parts[0].trim().equals(GZIP) || parts[0].trim().equals("*")) && !disabled(parts)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean disabled(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            if (parts[i].replace(" ", "").matches("q=0(\\.0{0,3})?")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record EncodedResponse(String tag, byte[] json, byte[] gzip) {
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import ru.yandex.practicum.filmorate.exception.RepositoryException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+public final class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+    private final UnaryOperator<V> share;
+    private final Runnable onJoin;
+
+    public SingleFlight(Duration maxWait, UnaryOperator<V> share, Runnable onJoin) {
+        this.maxWaitNanos = maxWait.toNanos();
+        this.share = share;
+        this.onJoin = onJoin;
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            return lead(key, flight, loader);
+        }
+        onJoin.run();
+        try {
+            return share.apply(leader.get(maxWaitNanos, TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new RepositoryException("Shared load failed for key " + key, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("Interrupted while waiting for a shared load of key " + key, e);
+        }
+    }
+
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,9 +14,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.ResponseBytesCache;
+import ru.yandex.practicum.filmorate.dto.BatchResponse;
 import ru.yandex.practicum.filmorate.dto.film.FilmDto;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
 import ru.yandex.practicum.filmorate.dto.film.UpdateFilmRequest;
+import ru.yandex.practicum.filmorate.pagination.CursorCodec;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.List;
@@ -25,21 +32,49 @@ import java.util.List;
 @RequestMapping("/films")
 @RequiredArgsConstructor
 public class FilmController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
     private final FilmService filmService;
+    private final NdjsonResponseFactory ndjsonResponseFactory;
+    private final ResponseBytesCache responseBytesCache;
 
     @GetMapping
-    public List<FilmDto> getAll() {
-        return filmService.getAllFilms();
+    public ResponseEntity<List<FilmDto>> getAll(@RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(filmService.getAllFilms());
+        }
+        KeysetPage<FilmDto> page = filmService.getFilmsPage(after, limit != null ? limit : DEFAULT_PAGE_SIZE);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, CursorCodec.encode(page.getNextAfterId()));
+        }
+        return response.body(page.getItems());
+    }
+
+    @GetMapping(params = "ids")
+    public BatchResponse<FilmDto> getByIds(@RequestParam List<Long> ids) {
+        return filmService.getFilmsByIds(ids);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ndjsonResponseFactory.<FilmDto>stream(filmService::exportFilms);
     }
 
     @GetMapping("/{id}")
-    public FilmDto findById(@PathVariable long id) {
+    public FilmDto findById(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(filmService.getFilmTag(id))) {
+            return null;
+        }
         return filmService.getFilmById(id);
     }
 
     @GetMapping("/popular")
-    public List<FilmDto> getMostPopularFilmsByLikes(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getBestByLikes(count);
+    public ResponseEntity<byte[]> getMostPopularFilmsByLikes(@RequestParam(defaultValue = "10") int count,
+                                                             WebRequest request) {
+        String tag = filmService.getPopularTag(count);
+        return responseBytesCache.respond("popular:" + count, tag, request, () -> filmService.getBestByLikes(count));
     }
 
     @PostMapping
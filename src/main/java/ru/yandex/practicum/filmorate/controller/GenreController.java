@@ -2,28 +2,34 @@ package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResponseBytesCache;
 import ru.yandex.practicum.filmorate.dto.film.genre.GenreDto;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/genres")
 @RequiredArgsConstructor
 public class GenreController {
     private final GenreService genreService;
+    private final ResponseBytesCache responseBytesCache;
 
     @GetMapping
-    public List<GenreDto> getAllGenres() {
-        return genreService.getAllGenres();
+    public ResponseEntity<byte[]> getAllGenres(WebRequest request) {
+        String tag = genreService.getGenresTag();
+        return responseBytesCache.respond("genres", tag, request, genreService::getAllGenres);
     }
 
     @GetMapping("/{id}")
-    public GenreDto findGenreById(@PathVariable @Positive long id) {
+    public GenreDto findGenreById(@PathVariable @Positive long id, WebRequest request) {
+        if (request.checkNotModified(genreService.getGenresTag())) {
+            return null;
+        }
         return genreService.getGenreById(id);
     }
 }
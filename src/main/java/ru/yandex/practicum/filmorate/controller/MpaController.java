@@ -2,28 +2,34 @@ package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.ResponseBytesCache;
 import ru.yandex.practicum.filmorate.dto.film.rating.RatingDto;
 import ru.yandex.practicum.filmorate.service.RatingService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/mpa")
 @RequiredArgsConstructor
 public class MpaController {
     private final RatingService ratingService;
+    private final ResponseBytesCache responseBytesCache;
 
     @GetMapping
-    public List<RatingDto> getAllRatings() {
-        return ratingService.getAllRatings();
+    public ResponseEntity<byte[]> getAllRatings(WebRequest request) {
+        String tag = ratingService.getRatingsTag();
+        return responseBytesCache.respond("mpa", tag, request, ratingService::getAllRatings);
     }
 
     @GetMapping("/{id}")
-    public RatingDto findRatingById(@PathVariable @Positive long id) {
+    public RatingDto findRatingById(@PathVariable @Positive long id, WebRequest request) {
+        if (request.checkNotModified(ratingService.getRatingsTag())) {
+            return null;
+        }
         return ratingService.getRatingById(id);
     }
 
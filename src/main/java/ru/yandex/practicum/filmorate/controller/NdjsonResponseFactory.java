@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+@Component
+public class NdjsonResponseFactory implements WebMvcConfigurer {
+    private static final String TIMEOUT_ATTRIBUTE = NdjsonResponseFactory.class.getName() + ".timeout";
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+
+    public NdjsonResponseFactory(ObjectMapper objectMapper,
+                                 @Value("${filmorate.export.timeout-ms:600000}") long timeoutMs) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<T>> producer) {
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(TIMEOUT_ATTRIBUTE, timeoutMs, RequestAttributes.SCOPE_REQUEST);
+        StreamingResponseBody body = outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                producer.accept(item -> write(writer, item));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                if (request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long timeout
+                        && request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(timeout);
+                }
+            }
+        });
+    }
+
+    private void write(SequenceWriter writer, Object item) {
+        try {
+            writer.write(item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,11 +11,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.dto.BatchResponse;
 import ru.yandex.practicum.filmorate.dto.user.NewUserRequest;
 import ru.yandex.practicum.filmorate.dto.user.UpdateUserRequest;
 import ru.yandex.practicum.filmorate.dto.user.UserDto;
+import ru.yandex.practicum.filmorate.pagination.CursorCodec;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.List;
@@ -23,26 +30,58 @@ import java.util.List;
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
     private final UserService userService;
+    private final NdjsonResponseFactory ndjsonResponseFactory;
 
     @GetMapping
-    public List<UserDto> getAll() {
-        return userService.getAllUsers();
+    public ResponseEntity<List<UserDto>> getAll(@RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(userService.getAllUsers());
+        }
+        return pageResponse(userService.getUsersPage(after, limit != null ? limit : DEFAULT_PAGE_SIZE));
+    }
+
+    @GetMapping(params = "ids")
+    public BatchResponse<UserDto> getByIds(@RequestParam List<Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ndjsonResponseFactory.<UserDto>stream(userService::exportUsers);
     }
 
     @GetMapping("/{id}")
-    public UserDto findById(@PathVariable long id) {
+    public UserDto findById(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(userService.getUserTag(id))) {
+            return null;
+        }
         return userService.getUserById(id);
     }
 
     @GetMapping("/{id}/friends")
-    public List<UserDto> getFriends(@PathVariable long id) {
-        return userService.getUserFriends(id);
+    public ResponseEntity<List<UserDto>> getFriends(@PathVariable long id,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(userService.getUserFriends(id));
+        }
+        return pageResponse(userService.getUserFriendsPage(id, after, limit != null ? limit : DEFAULT_PAGE_SIZE));
     }
 
     @GetMapping("/{id}/friends/common/{otherId}")
-    public List<UserDto> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
-        return userService.getCommonFriends(id, otherId);
+    public ResponseEntity<List<UserDto>> getCommonFriends(@PathVariable long id,
+                                                          @PathVariable long otherId,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(userService.getCommonFriends(id, otherId));
+        }
+        return pageResponse(userService.getCommonFriendsPage(id, otherId, after,
+                limit != null ? limit : DEFAULT_PAGE_SIZE));
     }
 
     @PostMapping
@@ -79,4 +118,12 @@ public class UserController {
     public void deleteFromFriendsList(@PathVariable long id, @PathVariable long friendId) {
         userService.deleteFriend(id, friendId);
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<List<UserDto>> pageResponse(KeysetPage<UserDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, CursorCodec.encode(page.getNextAfterId()));
+        }
+        return response.body(page.getItems());
+    }
+}
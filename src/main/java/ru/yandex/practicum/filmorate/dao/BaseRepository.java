@@ -7,22 +7,29 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.yandex.practicum.filmorate.exception.RepositoryException;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @RequiredArgsConstructor
 public class BaseRepository<T> {
     private static final Logger logger = LoggerFactory.getLogger(BaseRepository.class);
     protected final JdbcTemplate jdbc;
     protected final RowMapper<T> mapper;
+    protected final QueryMetrics metrics;
 
-    protected Optional<T> findOne(String query, Object... params) {
+    protected Optional<T> findOne(String name, String query, Object... params) {
         try {
-            T result = jdbc.queryForObject(query, mapper, params);
+            T result = timed(name, () -> jdbc.queryForObject(query, mapper, params));
             logger.info("Successfully found entity with query: {}", query);
             return Optional.of(result);
         } catch (EmptyResultDataAccessException e) {
@@ -31,14 +38,15 @@ public class BaseRepository<T> {
         }
     }
 
-    protected List<T> findMany(String query, Object... params) {
-        List<T> results = jdbc.query(query, mapper, params);
+    protected List<T> findMany(String name, String query, Object... params) {
+        List<T> results = timed(name, () -> jdbc.query(query, mapper, params));
+        metrics.recordRows(name, results.size());
         logger.info("Retrieved {} entities for query: {}", results.size(), query);
         return results;
     }
 
-    protected boolean delete(String query, long id) {
-        int rowsDeleted = jdbc.update(query, id);
+    protected boolean delete(String name, String query, long id) {
+        int rowsDeleted = timed(name, () -> jdbc.update(query, id));
         if (rowsDeleted > 0) {
             logger.info("Successfully deleted entity with id {} using query: {}", id, query);
             return true;
@@ -48,8 +56,8 @@ public class BaseRepository<T> {
         }
     }
 
-    protected void update(String query, Object... params) {
-        int rowsUpdated = jdbc.update(query, params);
+    protected void update(String name, String query, Object... params) {
+        int rowsUpdated = timed(name, () -> jdbc.update(query, params));
         if (rowsUpdated > 0) {
             logger.info("Successfully updated entity with query: {}", query);
         } else {
@@ -58,15 +66,15 @@ public class BaseRepository<T> {
         }
     }
 
-    protected long insert(String query, Object... params) {
+    protected long insert(String name, String query, Object... params) {
         GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbc.update(connection -> {
+        timed(name, () -> jdbc.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
             for (int idx = 0; idx < params.length; idx++) {
                 ps.setObject(idx + 1, params[idx]);
             }
             return ps;
-        }, keyHolder);
+        }, keyHolder));
 
         Number key = keyHolder.getKey();
         if (key == null) {
@@ -78,5 +86,40 @@ public class BaseRepository<T> {
         logger.info("Successfully inserted entity with generated id {} using query: {}", id, query);
         return id;
     }
-}
 
+    protected <R> R timed(String name, Supplier<R> call) {
+        return metrics.record(name, call);
+    }
+
+    protected void timedRun(String name, Runnable call) {
+        metrics.record(name, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    protected KeysetPage<T> toPage(List<T> rows, int limit, ToLongFunction<T> idExtractor) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, idExtractor.applyAsLong(items.get(limit - 1)));
+    }
+
+    protected static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    protected static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -2,23 +2,48 @@ package ru.yandex.practicum.filmorate.dao;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.SingleFlight;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 
 import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
+@Profile("!inmemory")
 public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
     private static final Logger logger = LoggerFactory.getLogger(FilmDbStorage.class);
-    private static final String FIND_ALL_QUERY = """
+    private static final String FILM_COLUMNS = """
             SELECT
                 f.id AS film_id,
                 f.title,
@@ -27,16 +52,15 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
                 f.release_date,
                 r.id AS rating_id,
                 r.name AS rating_name,
-                GROUP_CONCAT(DISTINCT g.id || ':' || g.name) AS genres,
-                GROUP_CONCAT(DISTINCT l.user_id) AS likes
+                f.like_count
             FROM films f
             LEFT JOIN ratings r ON f.rating_id = r.id
-            LEFT JOIN film_genres fg ON f.id = fg.film_id
-            LEFT JOIN genres g ON fg.genre_id = g.id
-            LEFT JOIN film_likes l ON f.id = l.film_id
-            GROUP BY f.id, f.title, f.description, f.duration, f.release_date, r.id, r.name;
             """;
-    private static final String FIND_BY_ID_QUERY = """
+    private static final String FIND_ALL_QUERY = FILM_COLUMNS + "ORDER BY f.id";
+    private static final String FIND_BY_ID_QUERY = FILM_COLUMNS + "WHERE f.id = ?";
+    private static final String FIND_PAGE_QUERY = FILM_COLUMNS + "WHERE f.id > ? ORDER BY f.id LIMIT ?";
+    private static final String FIND_BY_IDS_QUERY = FILM_COLUMNS + "WHERE f.id IN (%s)";
+    private static final String STREAM_ALL_QUERY = """
             SELECT
                 f.id AS film_id,
                 f.title,
@@ -45,16 +69,15 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
                 f.release_date,
                 r.id AS rating_id,
                 r.name AS rating_name,
-                GROUP_CONCAT(DISTINCT g.id || ':' || g.name) AS genres,
-                GROUP_CONCAT(DISTINCT l.user_id) AS likes
+                f.like_count,
+                fg.genre_id
             FROM films f
             LEFT JOIN ratings r ON f.rating_id = r.id
             LEFT JOIN film_genres fg ON f.id = fg.film_id
-            LEFT JOIN genres g ON fg.genre_id = g.id
-            LEFT JOIN film_likes l ON f.id = l.film_id
-            WHERE f.id = ?
-            GROUP BY f.id, f.title, f.description, f.duration, f.release_date, r.id, r.name
+            ORDER BY f.id, fg.genre_id
             """;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String FIND_LIKE_COUNTS_QUERY = "SELECT id, like_count FROM films";
     private static final String INSERT_FILM_QUERY = """
             INSERT INTO films (title, description, release_date,  duration, rating_id)
             VALUES (?, ?, ?, ?, ?)
@@ -64,49 +87,97 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
             SET title = ?, description = ?, release_date = ?, duration = ?, rating_id = ?
             WHERE id = ?
             """;
-    private static final String FIND_MOST_POPULAR_BY_LIKES = """
-            SELECT
-                f.id AS film_id,
-                f.title,
-                f.description,
-                f.duration,
-                f.release_date,
-                r.id AS rating_id,
-                r.name AS rating_name,
-                GROUP_CONCAT(DISTINCT g.id || ':' || g.name) AS genres,
-                COUNT(DISTINCT l.user_id) AS likes
-            FROM films f
-            LEFT JOIN ratings r ON f.rating_id = r.id
-            LEFT JOIN film_genres fg ON f.id = fg.film_id
-            LEFT JOIN genres g ON fg.genre_id = g.id
-            LEFT JOIN film_likes l ON f.id = l.film_id
-            GROUP BY f.id, f.title, f.description, f.duration, f.release_date, r.id, r.name
-            ORDER BY likes DESC
-            LIMIT ?
-            """;
 
     private static final String ADD_LIKE_QUERY = """
             INSERT INTO film_likes (film_id, user_id) VALUES (?, ?)
             """;
 
+    private static final String HAS_LIKE_QUERY = """
+            SELECT EXISTS (SELECT 1 FROM film_likes WHERE film_id = ? AND user_id = ?)
+            """;
+
+    private static final String LIKE_STATE_QUERY = """
+            SELECT EXISTS (SELECT 1 FROM films WHERE id = ?) AS film_exists,
+                   EXISTS (SELECT 1 FROM users WHERE id = ?) AS user_exists,
+                   EXISTS (SELECT 1 FROM film_likes WHERE film_id = ? AND user_id = ?) AS liked
+            """;
+
     private static final String REMOVE_LIKE_QUERY = """
             DELETE FROM film_likes WHERE film_id = ? AND user_id = ?
             """;
+
+    private static final String MERGE_LIKE_QUERY = """
+            MERGE INTO film_likes (film_id, user_id) KEY (film_id, user_id)
+            SELECT f.id, u.id FROM films f, users u WHERE f.id = ? AND u.id = ?
+            """;
+
+    private static final String USER_LIKE_CONSTRAINT = "FK_FILM_LIKES_USER";
+    private static final String FILM_EXISTS_QUERY = "SELECT EXISTS (SELECT 1 FROM films WHERE id = ?)";
+    private static final String USER_EXISTS_QUERY = "SELECT EXISTS (SELECT 1 FROM users WHERE id = ?)";
+
+    private static final String INCREMENT_LIKE_COUNT_QUERY = """
+            UPDATE films SET like_count = like_count + 1 WHERE id = ?
+            """;
+
+    private static final String DECREMENT_LIKE_COUNT_QUERY = """
+            UPDATE films SET like_count = like_count - 1 WHERE id = ? AND like_count > 0
+            """;
+
+    private static final String REBUILD_LIKE_COUNTS_QUERY = """
+            UPDATE films f
+            SET like_count = (SELECT COUNT(*) FROM film_likes l WHERE l.film_id = f.id)
+            WHERE like_count <> (SELECT COUNT(*) FROM film_likes l WHERE l.film_id = f.id)
+            """;
+
+    private static final String REFRESH_LIKE_COUNTS_QUERY = """
+            UPDATE films f
+            SET like_count = (SELECT COUNT(*) FROM film_likes l WHERE l.film_id = f.id)
+            WHERE f.id IN (%s)
+            """;
+
+    private static final String FIND_LIKE_COUNTS_BY_IDS_QUERY = FIND_LIKE_COUNTS_QUERY + " WHERE id IN (%s)";
     private final GenreRepository genreRepository;
+    private final SingleFlight<Long, Optional<Film>> filmLoads;
 
-    public FilmDbStorage(JdbcTemplate jdbc, RowMapper<Film> mapper, GenreRepository genreRepository) {
-        super(jdbc, mapper);
+    public FilmDbStorage(JdbcTemplate jdbc, RowMapper<Film> mapper, QueryMetrics metrics,
+                         GenreRepository genreRepository,
+                         @Value("${filmorate.storage.single-flight.max-wait-ms:2000}") long maxWaitMs) {
+        super(jdbc, mapper, metrics);
         this.genreRepository = genreRepository;
+        this.filmLoads = new SingleFlight<>(Duration.ofMillis(maxWaitMs), film -> film.map(FilmDbStorage::copy),
+                () -> metrics.recordCoalesced("film.findById"));
     }
 
     @Override
     public List<Film> getAll() {
-        return findMany(FIND_ALL_QUERY);
+        List<Film> films = findMany("film.findAll", FIND_ALL_QUERY);
+        Map<Long, Set<Genre>> filmGenres = genreRepository.findAllFilmGenres();
+        films.forEach(film -> film.setGenres(filmGenres.getOrDefault(film.getId(), Collections.emptySet())));
+        return films;
+    }
+
+    @Override
+    public KeysetPage<Film> getPage(long afterId, int limit) {
+        KeysetPage<Film> page = toPage(findMany("film.page", FIND_PAGE_QUERY, afterId, limit + 1), limit, Film::getId);
+        loadGenres(page.getItems());
+        return page;
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        FilmStreamHandler handler = new FilmStreamHandler(consumer);
+        timedRun("film.streamAll", () -> jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(STREAM_ALL_QUERY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, handler));
+        handler.flush();
     }
 
     @Override
+    @Transactional
     public Film create(Film newFilm) {
-        long id = insert(INSERT_FILM_QUERY,
+        long id = insert("film.insert", INSERT_FILM_QUERY,
                 newFilm.getName(),
                 newFilm.getDescription(),
                 Date.valueOf(newFilm.getReleaseDate()),
@@ -121,8 +192,9 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
     }
 
     @Override
+    @Transactional
     public Film update(Film updatedFilm) {
-        update(UPDATE_FILM_QUERY,
+        update("film.update", UPDATE_FILM_QUERY,
                 updatedFilm.getName(),
                 updatedFilm.getDescription(),
                 Date.valueOf(updatedFilm.getReleaseDate()),
@@ -132,13 +204,16 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
         );
 
         saveGenres(updatedFilm.getGenres(), updatedFilm.getId());
+        afterCompletion(() -> filmLoads.forget(updatedFilm.getId()));
         logger.info("Updated film with id {}", updatedFilm.getId());
         return updatedFilm;
     }
 
     @Override
     public void deleteById(long id) {
-        if (delete("DELETE FROM films WHERE id = ?", id)) {
+        boolean deleted = delete("film.delete", "DELETE FROM films WHERE id = ?", id);
+        filmLoads.forget(id);
+        if (deleted) {
             logger.info("Deleted film with id {}", id);
         } else {
             logger.warn("Film with id {} not found for deletion", id);
@@ -147,28 +222,196 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
 
     @Override
     public Optional<Film> findById(long id) {
-        return findOne(FIND_BY_ID_QUERY, id);
+        return filmLoads.load(id, () -> {
+            Optional<Film> film = findOne("film.findById", FIND_BY_ID_QUERY, id);
+            film.ifPresent(found -> loadGenres(List.of(found)));
+            return film;
+        });
     }
 
-    public List<Film> getBestByLikes(int count) {
-        return findMany(FIND_MOST_POPULAR_BY_LIKES, count);
+    @Override
+    public List<Film> findAllByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Film> films = findMany("film.findByIds", FIND_BY_IDS_QUERY.formatted(placeholders(ids.size())),
+                ids.toArray());
+        loadGenres(films);
+        Map<Long, Film> filmsById = films.stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        return ids.stream()
+                .map(filmsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public Map<Long, Long> getLikeCounts() {
+        Map<Long, Long> likeCounts = new HashMap<>();
+        timedRun("film.likeCounts", () -> jdbc.query(FIND_LIKE_COUNTS_QUERY, rs -> {
+            likeCounts.put(rs.getLong("id"), rs.getLong("like_count"));
+        }));
+        return likeCounts;
+    }
+
+    @Override
+    public boolean hasLike(long filmId, long userId) {
+        return Boolean.TRUE.equals(timed("film.hasLike",
+                () -> jdbc.queryForObject(HAS_LIKE_QUERY, Boolean.class, filmId, userId)));
+    }
+
+    @Override
+    public void validateLikeChange(long filmId, long userId, boolean like) {
+        timedRun("film.likeState", () -> jdbc.query(LIKE_STATE_QUERY, rs -> {
+            if (!rs.getBoolean("film_exists")) {
+                throw new NotFoundException("Film with id " + filmId + " not found");
+            }
+            if (!rs.getBoolean("user_exists")) {
+                throw new NotFoundException("User with id " + userId + " not found");
+            }
+            if (rs.getBoolean("liked") == like) {
+                throw new ValidationException(like
+                        ? "User with id " + userId + " already liked the film with id " + filmId
+                        : "User with id " + userId + " did not like the film with id " + filmId
+                        + ", so it cannot be removed.");
+            }
+        }, filmId, userId, filmId, userId));
     }
 
+    @Override
+    @Transactional
     public void addLike(long filmId, long userId) {
-        jdbc.update(ADD_LIKE_QUERY, filmId, userId);
+        try {
+            timed("film.addLike", () -> jdbc.update(ADD_LIKE_QUERY, filmId, userId));
+        } catch (DuplicateKeyException e) {
+            throw new ValidationException("User with id " + userId + " already liked the film with id " + filmId);
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toUpperCase();
+            if (cause.contains(USER_LIKE_CONSTRAINT)) {
+                throw new NotFoundException("User with id " + userId + " not found");
+            }
+            throw new NotFoundException("Film with id " + filmId + " not found");
+        }
+        timed("film.incrementLikeCount", () -> jdbc.update(INCREMENT_LIKE_COUNT_QUERY, filmId));
+        afterCompletion(() -> filmLoads.forget(filmId));
         logger.info("Added like for filmId {} by userId {}", filmId, userId);
     }
 
+    @Override
+    @Transactional
     public void removeLike(long filmId, long userId) {
-        jdbc.update(REMOVE_LIKE_QUERY, filmId, userId);
+        if (timed("film.removeLike", () -> jdbc.update(REMOVE_LIKE_QUERY, filmId, userId)) == 0) {
+            Boolean filmExists = timed("film.exists",
+                    () -> jdbc.queryForObject(FILM_EXISTS_QUERY, Boolean.class, filmId));
+            if (!Boolean.TRUE.equals(filmExists)) {
+                throw new NotFoundException("Film with id " + filmId + " not found");
+            }
+            Boolean userExists = timed("user.exists",
+                    () -> jdbc.queryForObject(USER_EXISTS_QUERY, Boolean.class, userId));
+            if (!Boolean.TRUE.equals(userExists)) {
+                throw new NotFoundException("User with id " + userId + " not found");
+            }
+            throw new ValidationException("User with id " + userId +
+                    " did not like the film with id " + filmId + ", so it cannot be removed.");
+        }
+        timed("film.decrementLikeCount", () -> jdbc.update(DECREMENT_LIKE_COUNT_QUERY, filmId));
+        afterCompletion(() -> filmLoads.forget(filmId));
         logger.info("Removed like for filmId {} by userId {}", filmId, userId);
     }
 
+    @Override
+    @Transactional
+    public Map<Long, Long> applyLikeChanges(List<FilmLike> added, List<FilmLike> removed) {
+        timed("film.mergeLikes", () -> jdbc.batchUpdate(MERGE_LIKE_QUERY, added, added.size(), (ps, like) -> {
+            ps.setLong(1, like.getFilmId());
+            ps.setLong(2, like.getUserId());
+        }));
+        timed("film.removeLikes", () -> jdbc.batchUpdate(REMOVE_LIKE_QUERY, removed, removed.size(), (ps, like) -> {
+            ps.setLong(1, like.getFilmId());
+            ps.setLong(2, like.getUserId());
+        }));
+
+        Object[] filmIds = Stream.concat(added.stream(), removed.stream())
+                .map(FilmLike::getFilmId)
+                .distinct()
+                .toArray();
+        Map<Long, Long> likeCounts = new HashMap<>();
+        if (filmIds.length == 0) {
+            return likeCounts;
+        }
+        String placeholders = placeholders(filmIds.length);
+        timed("film.refreshLikeCounts",
+                () -> jdbc.update(REFRESH_LIKE_COUNTS_QUERY.formatted(placeholders), filmIds));
+        afterCompletion(() -> likeCounts.keySet().forEach(filmLoads::forget));
+        timedRun("film.likeCountsByIds", () -> jdbc.query(FIND_LIKE_COUNTS_BY_IDS_QUERY.formatted(placeholders), rs -> {
+            likeCounts.put(rs.getLong("id"), rs.getLong("like_count"));
+        }, filmIds));
+        logger.info("Applied {} likes and {} unlikes for {} films", added.size(), removed.size(), filmIds.length);
+        return likeCounts;
+    }
+
+    @Override
+    @Transactional
+    public int rebuildLikeCounts() {
+        int corrected = timed("film.rebuildLikeCounts", () -> jdbc.update(REBUILD_LIKE_COUNTS_QUERY));
+        afterCompletion(filmLoads::forgetAll);
+        logger.info("Rebuilt like counters, {} films corrected", corrected);
+        return corrected;
+    }
+
+    private static Film copy(Film source) {
+        Film film = new Film();
+        film.setId(source.getId());
+        film.setLikeCount(source.getLikeCount());
+        film.setName(source.getName());
+        film.setDescription(source.getDescription());
+        film.setReleaseDate(source.getReleaseDate());
+        film.setDuration(source.getDuration());
+        film.setRating(source.getRating());
+        film.setGenres(new LinkedHashSet<>(source.getGenres()));
+        return film;
+    }
+
+    private void loadGenres(List<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        Map<Long, Set<Genre>> filmGenres = genreRepository.findGenresByFilmIds(films.stream().map(Film::getId).toList());
+        films.forEach(film -> film.setGenres(filmGenres.getOrDefault(film.getId(), Collections.emptySet())));
+    }
+
     private void saveGenres(Set<Genre> genres, long filmId) {
         genreRepository.updateGenresForFilm(filmId, genres);
         logger.info("Updated genres for filmId {}: {}", filmId, genres);
     }
 
-}
+    private class FilmStreamHandler implements RowCallbackHandler {
+        private final Consumer<Film> consumer;
+        private Film current;
+
+        FilmStreamHandler(Consumer<Film> consumer) {
+            this.consumer = consumer;
+        }
 
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long filmId = rs.getLong("film_id");
+            if (current == null || current.getId() != filmId) {
+                flush();
+                current = mapper.mapRow(rs, 0);
+                current.setGenres(new LinkedHashSet<>());
+            }
+            long genreId = rs.getLong("genre_id");
+            if (!rs.wasNull()) {
+                current.getGenres().add(genreRepository.findInDictionary(genreId));
+            }
+        }
 
+        void flush() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
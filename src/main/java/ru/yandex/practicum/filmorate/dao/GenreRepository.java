@@ -1,77 +1,134 @@
 package ru.yandex.practicum.filmorate.dao;
 
-import org.springframework.dao.EmptyResultDataAccessException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.cache.ReferenceTable;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Repository
 public class GenreRepository extends BaseRepository<Genre> implements GenreStorage {
+    private static final Logger logger = LoggerFactory.getLogger(GenreRepository.class);
 
     private static final String GET_ALL_GENRES = """
             SELECT * FROM genres ORDER BY id ASC
             """;
-    private static final String FIND_GENRE_BY_ID = """
-            SELECT * FROM genres WHERE id = ?
+    private static final String FIND_ALL_FILM_GENRES = """
+            SELECT film_id, genre_id FROM film_genres ORDER BY film_id, genre_id
             """;
+    private static final String FIND_FILM_GENRES_BY_FILM_IDS = """
+            SELECT film_id, genre_id FROM film_genres WHERE film_id IN (%s) ORDER BY film_id, genre_id
+            """;
+    private static final String DELETE_FILM_GENRES = """
+            DELETE FROM film_genres WHERE film_id = ?
+            """;
+    private static final String DELETE_STALE_FILM_GENRES = """
+            DELETE FROM film_genres WHERE film_id = ? AND genre_id NOT IN (%s)
+            """;
+    private static final String MERGE_FILM_GENRE = """
+            MERGE INTO film_genres (film_id, genre_id) KEY (film_id, genre_id) VALUES (?, ?)
+            """;
+
+    private final List<Runnable> refreshListeners = new CopyOnWriteArrayList<>();
+    private volatile ReferenceTable<Genre> genres = ReferenceTable.empty();
 
-    public GenreRepository(JdbcTemplate jdbc, RowMapper<Genre> mapper) {
-        super(jdbc, mapper);
+    public GenreRepository(JdbcTemplate jdbc, RowMapper<Genre> mapper, QueryMetrics metrics) {
+        super(jdbc, mapper, metrics);
+    }
+
+    @PostConstruct
+    public void refresh() {
+        genres = ReferenceTable.of(findMany("genre.findAll", GET_ALL_GENRES), Genre::getId);
+        logger.info("Loaded {} genres into reference table", genres.size());
+        refreshListeners.forEach(Runnable::run);
+    }
+
+    public void addRefreshListener(Runnable listener) {
+        refreshListeners.add(listener);
     }
 
     @Override
     public List<Genre> getAll() {
-        return jdbc.query(GET_ALL_GENRES, new GenreRowMapper());
+        return genres.values();
     }
 
-
     @Override
     public Optional<Genre> findById(long id) {
-        try {
-            return Optional.ofNullable(jdbc.queryForObject(FIND_GENRE_BY_ID, new GenreRowMapper(), id));
-        } catch (EmptyResultDataAccessException e) {
-            return Optional.empty();
+        return genres.get(id);
+    }
+
+    public Map<Long, Set<Genre>> findAllFilmGenres() {
+        return collectFilmGenres("genre.allFilmGenres", FIND_ALL_FILM_GENRES);
+    }
+
+    public Map<Long, Set<Genre>> findGenresByFilmIds(Collection<Long> filmIds) {
+        if (filmIds.isEmpty()) {
+            return Collections.emptyMap();
         }
+        return collectFilmGenres("genre.filmGenresByIds",
+                FIND_FILM_GENRES_BY_FILM_IDS.formatted(placeholders(filmIds.size())), filmIds.toArray());
     }
 
     public void updateGenresForFilm(long filmId, Set<Genre> newGenres) {
-        List<Long> currentGenreIds = jdbc.queryForList("SELECT genre_id FROM film_genres WHERE film_id = ?", Long.class, filmId);
+        List<Long> genreIds = newGenres == null ? List.of() : newGenres.stream()
+                .map(Genre::getId)
+                .distinct()
+                .toList();
 
-        newGenres = newGenres != null ? newGenres : Collections.emptySet();
-
-        for (Long currentGenreId : currentGenreIds) {
-            if (newGenres.stream().noneMatch(g -> g.getId().equals(currentGenreId))) {
-                jdbc.update("DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?", filmId, currentGenreId);
+        for (Long genreId : genreIds) {
+            if (!genres.contains(genreId)) {
+                throw new ValidationException("Genre with id " + genreId + " does not exist.");
             }
         }
 
-        for (Genre newGenre : newGenres) {
-            if (!genreExists(newGenre.getId())) {
-                throw new ValidationException("Genre with id " + newGenre.getId() + " does not exist.");
-            }
-            if (!currentGenreIds.contains(newGenre.getId())) {
-                jdbc.update("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", filmId, newGenre.getId());
-            }
+        if (genreIds.isEmpty()) {
+            timed("genre.deleteFilmGenres", () -> jdbc.update(DELETE_FILM_GENRES, filmId));
+            return;
         }
+
+        List<Object> deleteParams = new ArrayList<>(genreIds.size() + 1);
+        deleteParams.add(filmId);
+        deleteParams.addAll(genreIds);
+        timed("genre.deleteStaleFilmGenres", () -> jdbc.update(
+                DELETE_STALE_FILM_GENRES.formatted(placeholders(genreIds.size())), deleteParams.toArray()));
+
+        timed("genre.mergeFilmGenres", () -> jdbc.batchUpdate(MERGE_FILM_GENRE, genreIds, genreIds.size(),
+                (ps, genreId) -> {
+                    ps.setLong(1, filmId);
+                    ps.setLong(2, genreId);
+                }));
     }
 
-    private boolean genreExists(Long genreId) {
-        Integer count = jdbc.queryForObject(
-                "SELECT COUNT(*) FROM genres WHERE id = ?",
-                Integer.class,
-                genreId
-        );
-        return count != null && count > 0;
+    public Genre findInDictionary(long genreId) {
+        if (!genres.contains(genreId)) {
+            logger.warn("Genre with id {} is linked to a film but missing from the reference table, reloading", genreId);
+            refresh();
+        }
+        return genres.get(genreId).orElse(null);
     }
 
+    private Map<Long, Set<Genre>> collectFilmGenres(String name, String query, Object... params) {
+        Map<Long, Set<Genre>> filmGenres = new HashMap<>();
+        timedRun(name, () -> jdbc.query(query, rs -> {
+            filmGenres.computeIfAbsent(rs.getLong("film_id"), filmId -> new LinkedHashSet<>())
+                    .add(findInDictionary(rs.getLong("genre_id")));
+        }, params));
+        return filmGenres;
+    }
 }
-
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+public class QueryMetrics {
+    public static final String QUERY_TIMER = "filmorate.db.query";
+    public static final String QUERY_ROWS = "filmorate.db.query.rows";
+    public static final String QUERY_COALESCED = "filmorate.db.query.coalesced";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> errorTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> coalescedCounters = new ConcurrentHashMap<>();
+
+    public QueryMetrics(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+
+    public <R> R record(String query, Supplier<R> call) {
+        long started = System.nanoTime();
+        try {
+            R result = call.get();
+            timer(successTimers, query, "success").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            timer(errorTimers, query, "error").record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    public void recordRows(String query, int rows) {
+        rowSummaries.computeIfAbsent(query, name -> DistributionSummary.builder(QUERY_ROWS)
+                .description("Rows returned by a repository query")
+                .tag("query", name)
+                .register(registry)).record(rows);
+    }
+
+    public void recordCoalesced(String query) {
+        coalescedCounters.computeIfAbsent(query, name -> Counter.builder(QUERY_COALESCED)
+                .description("Lookups that joined an in-flight query for the same key")
+                .tag("query", name)
+                .register(registry)).increment();
+    }
+
+    private Timer timer(Map<String, Timer> timers, String query, String outcome) {
+        return timers.computeIfAbsent(query, name -> Timer.builder(QUERY_TIMER)
+                .description("Repository query execution time")
+                .tag("query", name)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+}
@@ -1,41 +1,52 @@
 package ru.yandex.practicum.filmorate.dao;
 
-import org.springframework.dao.EmptyResultDataAccessException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.dao.mappers.RatingRowMapper;
+import ru.yandex.practicum.filmorate.cache.ReferenceTable;
 import ru.yandex.practicum.filmorate.model.Rating;
 import ru.yandex.practicum.filmorate.storage.rating.RatingStorage;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Repository
 public class RatingRepository extends BaseRepository<Rating> implements RatingStorage {
+    private static final Logger logger = LoggerFactory.getLogger(RatingRepository.class);
 
     private static final String GET_ALL_RATINGS = """
             SELECT * FROM ratings ORDER BY id ASC
             """;
-    private static final String FIND_RATING_BY_ID = """
-            SELECT * FROM ratings WHERE id = ?
-            """;
 
-    public RatingRepository(JdbcTemplate jdbc, RowMapper<Rating> mapper) {
-        super(jdbc, mapper);
+    private final List<Runnable> refreshListeners = new CopyOnWriteArrayList<>();
+    private volatile ReferenceTable<Rating> ratings = ReferenceTable.empty();
+
+    public RatingRepository(JdbcTemplate jdbc, RowMapper<Rating> mapper, QueryMetrics metrics) {
+        super(jdbc, mapper, metrics);
+    }
+
+    @PostConstruct
+    public void refresh() {
+        ratings = ReferenceTable.of(findMany("rating.findAll", GET_ALL_RATINGS), Rating::getId);
+        logger.info("Loaded {} ratings into reference table", ratings.size());
+        refreshListeners.forEach(Runnable::run);
+    }
+
+    public void addRefreshListener(Runnable listener) {
+        refreshListeners.add(listener);
     }
 
     @Override
     public List<Rating> getAll() {
-        return jdbc.query(GET_ALL_RATINGS, new RatingRowMapper());
+        return ratings.values();
     }
 
     @Override
     public Optional<Rating> findById(long id) {
-        try {
-            return Optional.ofNullable(jdbc.queryForObject(FIND_RATING_BY_ID, new RatingRowMapper(), id));
-        } catch (EmptyResultDataAccessException e) {
-            return Optional.empty();
-        }
+        return ratings.get(id);
     }
 }
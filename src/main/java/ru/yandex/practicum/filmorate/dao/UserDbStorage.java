@@ -2,29 +2,44 @@ package ru.yandex.practicum.filmorate.dao;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.SingleFlight;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.LongIdSet;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.sql.Date;
-import java.util.Collections;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
+@Profile("!inmemory")
 public class UserDbStorage extends BaseRepository<User> implements UserStorage {
     private static final Logger logger = LoggerFactory.getLogger(UserDbStorage.class);
 
     private static final String FIND_ALL_QUERY = "SELECT * FROM users";
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM users WHERE id = ?";
+    private static final String FIND_BY_IDS_QUERY = "SELECT * FROM users WHERE id IN (%s)";
+    private static final String FIND_PAGE_QUERY = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
     private static final String INSERT_QUERY = """
             INSERT INTO users (name, email, login, birthday)
             VALUES (?, ?, ?, ?)
@@ -35,7 +50,60 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
             WHERE id = ?
             """;
     private static final String DELETE_USER_QUERY = "DELETE FROM users WHERE id = ?";
-    private static final String FIND_FRIENDS_QUERY = "SELECT receiver_id FROM friendships WHERE requester_id = ?";
+    private static final String DECREMENT_LIKED_FILMS_QUERY = """
+            UPDATE films
+            SET like_count = like_count - 1
+            WHERE id IN (SELECT film_id FROM film_likes WHERE user_id = ?)
+            """;
+    private static final String FIND_LIKED_FILM_COUNTS_QUERY = """
+            SELECT f.id, f.like_count
+            FROM film_likes fl
+            JOIN films f ON f.id = fl.film_id
+            WHERE fl.user_id = ?
+            """;
+    private static final String EXISTS_BY_ID_QUERY = "SELECT EXISTS (SELECT 1 FROM users WHERE id = ?)";
+    private static final String FIND_ALL_FRIENDS_OF_USER_QUERY = """
+            SELECT u.*
+            FROM friendships f
+            JOIN users u ON u.id = f.receiver_id
+            WHERE f.requester_id = ?
+            ORDER BY u.id
+            """;
+    private static final String FIND_FRIENDS_OF_USER_QUERY = """
+            SELECT u.*
+            FROM friendships f
+            JOIN users u ON u.id = f.receiver_id
+            WHERE f.requester_id = ? AND u.id > ?
+            ORDER BY u.id
+            LIMIT ?
+            """;
+    private static final String FIND_ALL_COMMON_FRIENDS_QUERY = """
+            SELECT u.*
+            FROM friendships f1
+            JOIN friendships f2 ON f1.receiver_id = f2.receiver_id
+            JOIN users u ON u.id = f1.receiver_id
+            WHERE f1.requester_id = ? AND f2.requester_id = ?
+            ORDER BY u.id
+            """;
+    private static final String FIND_COMMON_FRIENDS_QUERY = """
+            SELECT u.*
+            FROM friendships f1
+            JOIN friendships f2 ON f1.receiver_id = f2.receiver_id
+            JOIN users u ON u.id = f1.receiver_id
+            WHERE f1.requester_id = ? AND f2.requester_id = ? AND u.id > ?
+            ORDER BY u.id
+            LIMIT ?
+            """;
+    private static final String STREAM_ALL_QUERY = """
+            SELECT u.*, f.receiver_id
+            FROM users u
+            LEFT JOIN friendships f ON u.id = f.requester_id
+            ORDER BY u.id, f.receiver_id
+            """;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String FIND_FRIENDS_BY_USER_IDS_QUERY = """
+            SELECT requester_id, receiver_id FROM friendships WHERE requester_id IN (%s)
+            """;
     private static final String ADD_FRIEND_QUERY = "INSERT INTO friendships (requester_id, receiver_id, status) VALUES (?, ?, 'UNCONFIRMED')";
     private static final String REMOVE_FRIEND_QUERY = "DELETE FROM friendships WHERE requester_id = ? AND receiver_id = ?";
     private static final String GET_FRIEND_IDS = "SELECT receiver_id FROM friendships WHERE requester_id = ?";
@@ -49,21 +117,90 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
             WHERE requester_id = ? AND receiver_id = ?
             """;
 
-    public UserDbStorage(JdbcTemplate jdbc, RowMapper<User> rowMapper) {
-        super(jdbc, rowMapper);
+    private final SingleFlight<Long, Optional<User>> userLoads;
+
+    public UserDbStorage(JdbcTemplate jdbc, RowMapper<User> rowMapper, QueryMetrics metrics,
+                         @Value("${filmorate.storage.single-flight.max-wait-ms:2000}") long maxWaitMs) {
+        super(jdbc, rowMapper, metrics);
+        this.userLoads = new SingleFlight<>(Duration.ofMillis(maxWaitMs), user -> user.map(UserDbStorage::copy),
+                () -> metrics.recordCoalesced("user.findById"));
     }
 
     @Override
     public List<User> getAll() {
-        List<User> users = findMany(FIND_ALL_QUERY);
+        List<User> users = findMany("user.findAll", FIND_ALL_QUERY);
         loadAllFriends(users);
 
         return users;
     }
 
-    public Set<Long> getFriendIds(long userId) {
-        List<Long> friendIds = jdbc.queryForList(GET_FRIEND_IDS, Long.class, userId);
-        return new HashSet<>(friendIds);
+    @Override
+    public KeysetPage<User> getPage(long afterId, int limit) {
+        KeysetPage<User> page = toPage(findMany("user.page", FIND_PAGE_QUERY, afterId, limit + 1), limit, User::getId);
+        loadFriends(page.getItems());
+        return page;
+    }
+
+    @Override
+    public List<User> getFriends(long userId) {
+        List<User> friends = findMany("user.friends", FIND_ALL_FRIENDS_OF_USER_QUERY, userId);
+        loadFriends(friends);
+        return friends;
+    }
+
+    @Override
+    public KeysetPage<User> getFriendsPage(long userId, long afterId, int limit) {
+        KeysetPage<User> page = toPage(
+                findMany("user.friendsPage", FIND_FRIENDS_OF_USER_QUERY, userId, afterId, limit + 1),
+                limit,
+                User::getId
+        );
+        loadFriends(page.getItems());
+        return page;
+    }
+
+    @Override
+    public List<User> getCommonFriends(long userId, long otherUserId) {
+        List<User> commonFriends = findMany("user.commonFriends", FIND_ALL_COMMON_FRIENDS_QUERY, userId, otherUserId);
+        loadFriends(commonFriends);
+        return commonFriends;
+    }
+
+    @Override
+    public KeysetPage<User> getCommonFriendsPage(long userId, long otherUserId, long afterId, int limit) {
+        KeysetPage<User> page = toPage(
+                findMany("user.commonFriendsPage", FIND_COMMON_FRIENDS_QUERY, userId, otherUserId, afterId, limit + 1),
+                limit,
+                User::getId
+        );
+        loadFriends(page.getItems());
+        return page;
+    }
+
+    @Override
+    public boolean existsById(long id) {
+        return Boolean.TRUE.equals(timed("user.exists",
+                () -> jdbc.queryForObject(EXISTS_BY_ID_QUERY, Boolean.class, id)));
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        UserStreamHandler handler = new UserStreamHandler(consumer);
+        timedRun("user.streamAll", () -> jdbc.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(STREAM_ALL_QUERY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            return ps;
+        }, handler));
+        handler.flush();
+    }
+
+    @Override
+    public LongIdSet getFriendIds(long userId) {
+        LongIdSet.Builder friendIds = LongIdSet.builder();
+        timedRun("user.friendIds", () -> jdbc.query(GET_FRIEND_IDS, rs -> {
+            friendIds.add(rs.getLong("receiver_id"));
+        }, userId));
+        return friendIds.build();
     }
 
     @Override
@@ -72,6 +209,7 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
             throw new ValidationException("Login '" + newUser.getLogin() + "' is already in use.");
         }
         long id = insert(
+                "user.insert",
                 INSERT_QUERY,
                 newUser.getName(),
                 newUser.getEmail(),
@@ -88,6 +226,7 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
     @Override
     public User update(User updatedUser) {
         update(
+                "user.update",
                 UPDATE_QUERY,
                 updatedUser.getName(),
                 updatedUser.getEmail(),
@@ -95,68 +234,165 @@ public class UserDbStorage extends BaseRepository<User> implements UserStorage {
                 Date.valueOf(updatedUser.getBirthday()),
                 updatedUser.getId()
         );
+        afterCompletion(() -> userLoads.forget(updatedUser.getId()));
         return updatedUser;
     }
 
     @Override
-    public void deleteById(long id) {
-        jdbc.update("DELETE FROM friendships WHERE requester_id = ? OR receiver_id = ?", id, id);
+    @Transactional
+    public Map<Long, Long> deleteById(long id) {
+        Map<Long, Long> likeCounts = new HashMap<>();
+        timed("user.decrementLikedFilms", () -> jdbc.update(DECREMENT_LIKED_FILMS_QUERY, id));
+        timedRun("user.likedFilmCounts", () -> jdbc.query(FIND_LIKED_FILM_COUNTS_QUERY, rs -> {
+            likeCounts.put(rs.getLong("id"), rs.getLong("like_count"));
+        }, id));
+        timed("user.deleteFriendships",
+                () -> jdbc.update("DELETE FROM friendships WHERE requester_id = ? OR receiver_id = ?", id, id));
 
-        delete(DELETE_USER_QUERY, id);
+        delete("user.delete", DELETE_USER_QUERY, id);
+        afterCompletion(userLoads::forgetAll);
+        return likeCounts;
     }
 
 
     @Override
     public Optional<User> findById(long id) {
-        Optional<User> user = findOne(FIND_BY_ID_QUERY, id);
-        user.ifPresent(this::loadFriends);
-        return user;
+        return userLoads.load(id, () -> {
+            Optional<User> user = findOne("user.findById", FIND_BY_ID_QUERY, id);
+            user.ifPresent(this::loadFriends);
+            return user;
+        });
+    }
+
+    @Override
+    public List<User> findAllByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<User> users = findMany("user.findByIds", FIND_BY_IDS_QUERY.formatted(placeholders(ids.size())),
+                ids.toArray());
+        loadFriends(users);
+        Map<Long, User> usersById = users.stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
+    @Override
     public void sendFriendRequest(long userId, long friendId) {
-        jdbc.update(ADD_FRIEND_QUERY, userId, friendId);
+        timed("user.addFriend", () -> jdbc.update(ADD_FRIEND_QUERY, userId, friendId));
+        afterCompletion(() -> userLoads.forget(userId));
         logger.info("User with id {} send friendship request to user with id {}", userId, friendId);
     }
 
+    @Override
     public void cancelFriendRequest(long userId, long friendId) {
-        jdbc.update(REMOVE_FRIEND_QUERY, userId, friendId);
+        timed("user.removeFriend", () -> jdbc.update(REMOVE_FRIEND_QUERY, userId, friendId));
+        afterCompletion(() -> userLoads.forget(userId));
         logger.info("User with id {} removed friend with id {}", userId, friendId);
     }
 
 
+    private static User copy(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setName(source.getName());
+        user.setEmail(source.getEmail());
+        user.setLogin(source.getLogin());
+        user.setBirthday(source.getBirthday());
+        user.setFriends(source.getFriends());
+        return user;
+    }
+
     private void loadFriends(User user) {
-        List<Long> friends = jdbc.queryForList(FIND_FRIENDS_QUERY, Long.class, user.getId());
-        user.setFriends(new HashSet<>(friends));
+        user.setFriends(getFriendIds(user.getId()));
     }
 
+    @Override
     public void confirmFriendship(long requesterId, long receiverId) {
-        int rowsUpdated = jdbc.update(UPDATE_FRIENDSHIP_STATUS_QUERY, requesterId, receiverId);
+        int rowsUpdated = timed("user.confirmFriendship",
+                () -> jdbc.update(UPDATE_FRIENDSHIP_STATUS_QUERY, requesterId, receiverId));
         if (rowsUpdated == 0) {
             throw new NotFoundException("Friendship request not found for requester_id: " + requesterId + " and receiver_id: " + receiverId);
         }
         logger.info("Friendship confirmed between requester_id: {} and receiver_id: {}", requesterId, receiverId);
     }
 
+    @Override
     public boolean isFriendshipExists(long requesterId, long receiverId) {
-        Integer count = jdbc.queryForObject(CHECK_FRIENDSHIP_EXISTS_QUERY, Integer.class, requesterId, receiverId);
+        Integer count = timed("user.friendshipExists",
+                () -> jdbc.queryForObject(CHECK_FRIENDSHIP_EXISTS_QUERY, Integer.class, requesterId, receiverId));
         return count != null && count > 0;
     }
 
+    @Override
     public boolean isLoginExists(String login) {
-        Integer count = jdbc.queryForObject(
-                "SELECT COUNT(*) FROM users WHERE login = ?", Integer.class, login);
+        Integer count = timed("user.loginExists", () -> jdbc.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE login = ?", Integer.class, login));
         return count != null && count > 0;
     }
 
+    private void loadFriends(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Map<Long, LongIdSet.Builder> userFriendsMap = new HashMap<>();
+        timedRun("user.friendsByUserIds", () -> jdbc.query(
+                FIND_FRIENDS_BY_USER_IDS_QUERY.formatted(placeholders(users.size())), rs -> {
+                    userFriendsMap.computeIfAbsent(rs.getLong("requester_id"), k -> LongIdSet.builder())
+                            .add(rs.getLong("receiver_id"));
+                }, users.stream().map(User::getId).toArray()));
+        setFriends(users, userFriendsMap);
+    }
+
     private void loadAllFriends(List<User> users) {
-        Map<Long, Set<Long>> userFriendsMap = new HashMap<>();
-        jdbc.query("SELECT requester_id, receiver_id FROM friendships", rs -> {
+        Map<Long, LongIdSet.Builder> userFriendsMap = new HashMap<>();
+        timedRun("user.allFriendships", () -> jdbc.query("SELECT requester_id, receiver_id FROM friendships", rs -> {
             long requesterId = rs.getLong("requester_id");
             long receiverId = rs.getLong("receiver_id");
-            userFriendsMap.computeIfAbsent(requesterId, k -> new HashSet<>()).add(receiverId);
-        });
+            userFriendsMap.computeIfAbsent(requesterId, k -> LongIdSet.builder()).add(receiverId);
+        }));
+        setFriends(users, userFriendsMap);
+    }
+
+    private void setFriends(List<User> users, Map<Long, LongIdSet.Builder> userFriendsMap) {
         for (User user : users) {
-            user.setFriends(userFriendsMap.getOrDefault(user.getId(), Collections.emptySet()));
+            LongIdSet.Builder friends = userFriendsMap.get(user.getId());
+            user.setFriends(friends != null ? friends.build() : LongIdSet.empty());
+        }
+    }
+
+    private class UserStreamHandler implements RowCallbackHandler {
+        private final Consumer<User> consumer;
+        private User current;
+        private LongIdSet.Builder currentFriends;
+
+        UserStreamHandler(Consumer<User> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long userId = rs.getLong("id");
+            if (current == null || current.getId() != userId) {
+                flush();
+                current = mapper.mapRow(rs, 0);
+                currentFriends = LongIdSet.builder();
+            }
+            long friendId = rs.getLong("receiver_id");
+            if (!rs.wasNull()) {
+                currentFriends.add(friendId);
+            }
+        }
+
+        void flush() {
+            if (current != null) {
+                current.setFriends(currentFriends.build());
+                consumer.accept(current);
+                current = null;
+            }
         }
     }
 }
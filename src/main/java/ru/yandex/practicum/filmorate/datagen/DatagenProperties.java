@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.datagen;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "filmorate.datagen")
+public record DatagenProperties(
+        @DefaultValue("100000") int users,
+        @DefaultValue("10000") int films,
+        @DefaultValue("1000000") long likes,
+        @DefaultValue("20") int friendsPerUser,
+        @DefaultValue("0.3") double confirmedShare,
+        @DefaultValue("3") int maxGenresPerFilm,
+        @DefaultValue("1.1") double zipfExponent,
+        @DefaultValue("42") long seed,
+        @DefaultValue("10000") int batchSize,
+        @DefaultValue("false") boolean exitWhenDone) {
+}
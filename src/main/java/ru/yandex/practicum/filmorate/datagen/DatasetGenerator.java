@@ -0,0 +1,245 @@
+package ru.yandex.practicum.filmorate.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Profile("datagen")
+@EnableConfigurationProperties(DatagenProperties.class)
+public class DatasetGenerator implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+    private static final String INSERT_USER_QUERY =
+            "INSERT INTO users (id, name, email, login, birthday) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_FILM_QUERY = """
+            INSERT INTO films (id, title, description, release_date, duration, rating_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_FILM_GENRE_QUERY = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+    private static final String INSERT_FRIENDSHIP_QUERY =
+            "INSERT INTO friendships (requester_id, receiver_id, status) VALUES (?, ?, ?)";
+    private static final String INSERT_LIKE_QUERY = "INSERT INTO film_likes (film_id, user_id) VALUES (?, ?)";
+    private static final LocalDate FIRST_RELEASE_DATE = LocalDate.of(1950, 1, 1);
+    private static final int RELEASE_DATE_RANGE_DAYS = 27_000;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final FilmDbStorage filmDbStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final ApplicationContext context;
+    private final DatagenProperties properties;
+
+    public DatasetGenerator(JdbcTemplate jdbc,
+                            PlatformTransactionManager transactionManager,
+                            FilmDbStorage filmDbStorage,
+                            PopularFilmsIndex popularFilmsIndex,
+                            ApplicationContext context,
+                            DatagenProperties properties) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.filmDbStorage = filmDbStorage;
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.context = context;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generate();
+        if (properties.exitWhenDone()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    public DatasetSummary generate() {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(properties.seed());
+        long firstUserId = nextId("users");
+        long firstFilmId = nextId("films");
+        List<Long> genreIds = jdbc.queryForList("SELECT id FROM genres ORDER BY id", Long.class);
+        List<Long> ratingIds = jdbc.queryForList("SELECT id FROM ratings ORDER BY id", Long.class);
+        logger.info("Generating dataset with seed {}: {} users, {} films, ~{} likes",
+                properties.seed(), properties.users(), properties.films(), properties.likes());
+
+        long users = insertUsers(firstUserId);
+        long films = insertFilms(firstFilmId, ratingIds, random);
+        long filmGenres = insertFilmGenres(firstFilmId, genreIds, random);
+        long friendships = insertFriendships(firstUserId, random);
+        long likes = insertLikes(firstFilmId, firstUserId, random);
+        restartIdentity("users", firstUserId + properties.users());
+        restartIdentity("films", firstFilmId + properties.films());
+
+        filmDbStorage.rebuildLikeCounts();
+        popularFilmsIndex.reload();
+
+        DatasetSummary summary = new DatasetSummary(users, films, filmGenres, friendships, likes,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        logger.info("Dataset generated: {}", summary);
+        return summary;
+    }
+
+    private long insertUsers(long firstUserId) {
+        try (RowBatch batch = new RowBatch(INSERT_USER_QUERY)) {
+            for (long id = firstUserId; id < firstUserId + properties.users(); id++) {
+                LocalDate birthday = LocalDate.of(1950 + (int) (id % 55), 1 + (int) (id % 12),
+                        1 + (int) (id % 28));
+                batch.add(id, "User " + id, "user" + id + "@datagen.local", "datagen" + id, Date.valueOf(birthday));
+            }
+            return batch.written();
+        }
+    }
+
+    private long insertFilms(long firstFilmId, List<Long> ratingIds, SplittableRandom random) {
+        try (RowBatch batch = new RowBatch(INSERT_FILM_QUERY)) {
+            for (long id = firstFilmId; id < firstFilmId + properties.films(); id++) {
+                LocalDate releaseDate = FIRST_RELEASE_DATE.plusDays(random.nextInt(RELEASE_DATE_RANGE_DAYS));
+                Long ratingId = ratingIds.isEmpty() ? null : ratingIds.get(random.nextInt(ratingIds.size()));
+                batch.add(id, "Film " + id, "Generated film " + id, Date.valueOf(releaseDate),
+                        60 + random.nextInt(140), ratingId);
+            }
+            return batch.written();
+        }
+    }
+
+    private long insertFilmGenres(long firstFilmId, List<Long> genreIds, SplittableRandom random) {
+        if (genreIds.isEmpty() || properties.maxGenresPerFilm() <= 0) {
+            return 0;
+        }
+        try (RowBatch batch = new RowBatch(INSERT_FILM_GENRE_QUERY)) {
+            Set<Long> filmGenres = new HashSet<>();
+            for (long id = firstFilmId; id < firstFilmId + properties.films(); id++) {
+                int genreCount = 1 + random.nextInt(Math.min(properties.maxGenresPerFilm(), genreIds.size()));
+                filmGenres.clear();
+                while (filmGenres.size() < genreCount) {
+                    filmGenres.add(genreIds.get(random.nextInt(genreIds.size())));
+                }
+                for (Long genreId : filmGenres) {
+                    batch.add(id, genreId);
+                }
+            }
+            return batch.written();
+        }
+    }
+
+    private long insertFriendships(long firstUserId, SplittableRandom random) {
+        if (properties.users() < 2 || properties.friendsPerUser() <= 0) {
+            return 0;
+        }
+        ZipfDistribution popularity = new ZipfDistribution(properties.users(), properties.zipfExponent());
+        try (RowBatch batch = new RowBatch(INSERT_FRIENDSHIP_QUERY)) {
+            Set<Integer> friends = new HashSet<>();
+            for (int user = 0; user < properties.users(); user++) {
+                int requests = exponentialCount(random, properties.friendsPerUser(), properties.users() - 1);
+                friends.clear();
+                for (int attempt = 0; friends.size() < requests && attempt < requests * 4; attempt++) {
+                    int friend = popularity.sample(random);
+                    if (friend != user && friends.add(friend)) {
+                        boolean confirmed = random.nextDouble() < properties.confirmedShare();
+                        batch.add(firstUserId + user, firstUserId + friend, confirmed ? "CONFIRMED" : "UNCONFIRMED");
+                    }
+                }
+            }
+            return batch.written();
+        }
+    }
+
+    private long insertLikes(long firstFilmId, long firstUserId, SplittableRandom random) {
+        if (properties.users() == 0 || properties.films() == 0 || properties.likes() <= 0) {
+            return 0;
+        }
+        ZipfDistribution popularity = new ZipfDistribution(properties.films(), properties.zipfExponent());
+        double likesPerUser = (double) properties.likes() / properties.users();
+        try (RowBatch batch = new RowBatch(INSERT_LIKE_QUERY)) {
+            Set<Integer> liked = new HashSet<>();
+            for (int user = 0; user < properties.users(); user++) {
+                int likes = exponentialCount(random, likesPerUser, properties.films());
+                liked.clear();
+                for (int attempt = 0; liked.size() < likes && attempt < likes * 4; attempt++) {
+                    int film = popularity.sample(random);
+                    if (liked.add(film)) {
+                        batch.add(firstFilmId + film, firstUserId + user);
+                    }
+                }
+            }
+            return batch.written();
+        }
+    }
+
+    private int exponentialCount(SplittableRandom random, double mean, int max) {
+        return (int) Math.min(max, Math.round(-mean * Math.log(1 - random.nextDouble())));
+    }
+
+    private long nextId(String table) {
+        Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return (maxId == null ? 0 : maxId) + 1;
+    }
+
+    private void restartIdentity(String table, long nextId) {
+        jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId);
+    }
+
+    public record DatasetSummary(long users, long films, long filmGenres, long friendships, long likes,
+                                 long elapsedMillis) {
+    }
+
+    private class RowBatch implements AutoCloseable {
+        private final String sql;
+        private final List<Object[]> rows;
+        private final long started;
+        private long written;
+
+        RowBatch(String sql) {
+            this.sql = sql;
+            this.started = System.nanoTime();
+            this.rows = new ArrayList<>(properties.batchSize());
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= properties.batchSize()) {
+                flush();
+            }
+        }
+
+        long written() {
+            flush();
+            return written;
+        }
+
+        @Override
+        public void close() {
+            flush();
+            logger.info("Inserted {} rows in {} ms: {}", written,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), sql.strip());
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbc.batchUpdate(sql, rows));
+            written += rows.size();
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+@Data
+@AllArgsConstructor
+public class BatchResponse<T> {
+    private List<T> items;
+    private List<Long> missingIds;
+
+    public static <T> BatchResponse<T> of(List<Long> requestedIds, List<T> found, ToLongFunction<T> idOf) {
+        Set<Long> foundIds = new HashSet<>();
+        found.forEach(item -> foundIds.add(idOf.applyAsLong(item)));
+        List<Long> missingIds = requestedIds.stream()
+                .filter(id -> !foundIds.contains(id))
+                .toList();
+        return new BatchResponse<>(found, missingIds);
+    }
+}
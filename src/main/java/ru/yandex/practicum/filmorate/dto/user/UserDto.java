@@ -4,9 +4,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.model.LongIdSet;
 
 import java.time.LocalDate;
-import java.util.Set;
 
 @Data
 @AllArgsConstructor
@@ -18,5 +18,5 @@ public class UserDto {
     private String email;
     private String login;
     private LocalDate birthday;
-    private Set<Long> friends;
+    private LongIdSet friends;
 }
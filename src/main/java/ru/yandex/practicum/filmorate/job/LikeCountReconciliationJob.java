@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.job;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+@Component
+@RequiredArgsConstructor
+public class LikeCountReconciliationJob {
+    private static final Logger logger = LoggerFactory.getLogger(LikeCountReconciliationJob.class);
+    private final FilmStorage filmStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+
+    @Scheduled(cron = "${filmorate.likes.reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        int corrected = filmStorage.rebuildLikeCounts();
+        if (corrected > 0) {
+            logger.warn("Like counters drifted for {} films and were rebuilt from film_likes", corrected);
+            popularFilmsIndex.reload();
+        }
+    }
+}
@@ -16,6 +16,7 @@ import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Rating;
 
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -48,7 +49,7 @@ public final class FilmMapper {
                 film.getDuration(),
                 film.getGenres().stream()
                         .map(genre -> new GenreDto(genre.getId(), genre.getName()))
-                        .collect(Collectors.toSet()),
+                        .collect(Collectors.toCollection(LinkedHashSet::new)),
                 film.getRating() != null
                         ? new RatingDto(film.getRating().getId(), film.getRating().getName())
                         : null
@@ -19,7 +19,7 @@ public class Film {
     private Long id;
 
     @JsonIgnore
-    private Set<Long> likes = new HashSet<>();
+    private long likeCount;
 
     @NotBlank(message = "Name must not be blank")
     private String name;
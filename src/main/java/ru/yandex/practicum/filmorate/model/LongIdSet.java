@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+public final class LongIdSet extends AbstractSet<Long> {
+    private static final LongIdSet EMPTY = new LongIdSet(new long[0]);
+
+    private final long[] ids;
+
+    private LongIdSet(long[] sortedDistinctIds) {
+        this.ids = sortedDistinctIds;
+    }
+
+    public static LongIdSet empty() {
+        return EMPTY;
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static LongIdSet of(long... ids) {
+        return fromUnsorted(ids.clone(), ids.length);
+    }
+
+    public static LongIdSet copyOf(Collection<Long> ids) {
+        if (ids instanceof LongIdSet longIdSet) {
+            return longIdSet;
+        }
+        return fromUnsorted(ids.stream().mapToLong(Long::longValue).toArray(), ids.size());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long id && contains(id.longValue());
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < ids.length;
+            }
+
+            @Override
+            public long nextLong() {
+                if (next >= ids.length) {
+                    throw new NoSuchElementException();
+                }
+                return ids[next++];
+            }
+        };
+    }
+
+    public LongStream longStream() {
+        return Arrays.stream(ids);
+    }
+
+    @JsonValue
+    public long[] toLongArray() {
+        return ids.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof LongIdSet other) {
+            return Arrays.equals(ids, other.ids);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (long id : ids) {
+            hash += Long.hashCode(id);
+        }
+        return hash;
+    }
+
+    private static LongIdSet fromUnsorted(long[] ids, int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(ids, 0, length);
+        int distinct = 1;
+        for (int i = 1; i < length; i++) {
+            if (ids[i] != ids[distinct - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return new LongIdSet(distinct == ids.length ? ids : Arrays.copyOf(ids, distinct));
+    }
+
+    public static final class Builder {
+        private long[] ids = new long[8];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+            return this;
+        }
+
+        public LongIdSet build() {
+            return fromUnsorted(ids, size);
+        }
+    }
+}
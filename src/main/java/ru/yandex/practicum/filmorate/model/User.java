@@ -10,8 +10,6 @@ import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
 
 @Data
 @EqualsAndHashCode(of = {"id"})
@@ -31,7 +29,7 @@ public class User {
 
     @JsonIgnore
     @ToString.Exclude
-    private Set<Long> friends = new HashSet<>();
+    private LongIdSet friends = LongIdSet.empty();
 
     public void useLoginForEmptyName() {
         if (this.name == null || this.name.isBlank()) {
@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class SqlStatementStatsFilter extends OncePerRequestFilter {
+    public static final String COUNT_HEADER = "X-SQL-Count";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementStatsFilter.class);
+
+    private final MeterRegistry registry;
+    private final int repeatedStatementThreshold;
+
+    public SqlStatementStatsFilter(ObjectProvider<MeterRegistry> registry,
+                                   @Value("${filmorate.sql.repeated-statement-threshold:5}") int threshold) {
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.repeatedStatementThreshold = threshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/export");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementStats stats = StatementTracker.begin();
+        StatsHeaderResponse statsResponse = new StatsHeaderResponse(response, stats);
+        try {
+            chain.doFilter(request, statsResponse);
+        } finally {
+            StatementTracker.end();
+            statsResponse.writeHeaders();
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, StatementStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("filmorate.http.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(stats.getCount());
+        Timer.builder("filmorate.http.sql.time")
+                .description("Time spent in SQL statements per HTTP request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(registry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+        stats.repeatedShapes(repeatedStatementThreshold).forEach((shape, executions) ->
+                logger.warn("Statement executed {} times during {} {}: {}", executions, request.getMethod(), uri, shape));
+    }
+
+    private static class StatsHeaderResponse extends HttpServletResponseWrapper {
+        private final StatementStats stats;
+        private boolean headersWritten;
+
+        StatsHeaderResponse(HttpServletResponse response, StatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            setHeader(COUNT_HEADER, String.valueOf(stats.getCount()));
+            setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", stats.getMillis()));
+            headersWritten = true;
+        }
+    }
+}
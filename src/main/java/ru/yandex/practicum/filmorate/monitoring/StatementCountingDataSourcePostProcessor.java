@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+public class StatementCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+            return new StatementCountingDataSource(dataSource);
+        }
+        return bean;
+    }
+}
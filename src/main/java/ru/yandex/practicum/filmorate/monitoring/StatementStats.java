@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class StatementStats {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int count;
+    private long nanos;
+
+    public void record(String sql, long elapsedNanos) {
+        count++;
+        nanos += elapsedNanos;
+        if (sql != null) {
+            shapes.merge(shape(sql), 1, Integer::sum);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public double getMillis() {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.forEach((shape, executions) -> {
+            if (executions >= threshold) {
+                repeated.put(shape, executions);
+            }
+        });
+        return repeated;
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.strip()).replaceAll(" ");
+        shape = PLACEHOLDER_LIST.matcher(shape).replaceAll("?...");
+        return NUMBER_LITERAL.matcher(shape).replaceAll("?");
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.function.Supplier;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class StatementTracker {
+    private static final ThreadLocal<StatementStats> CURRENT = new ThreadLocal<>();
+
+    public static StatementStats begin() {
+        StatementStats stats = new StatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static StatementStats end() {
+        StatementStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    public static StatementStats track(Runnable action) {
+        return track(() -> {
+            action.run();
+            return null;
+        }).stats();
+    }
+
+    public static <T> Tracked<T> track(Supplier<T> action) {
+        StatementStats previous = CURRENT.get();
+        StatementStats stats = begin();
+        try {
+            return new Tracked<>(action.get(), stats);
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        StatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.record(sql, elapsedNanos);
+        }
+    }
+
+    public record Tracked<T>(T result, StatementStats stats) {
+    }
+}
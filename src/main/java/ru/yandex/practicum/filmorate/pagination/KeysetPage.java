@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> items;
+    private Long nextAfterId;
+
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+
+    public <R> KeysetPage<R> map(Function<T, R> mapper) {
+        return new KeysetPage<>(items.stream().map(mapper).toList(), nextAfterId);
+    }
+}
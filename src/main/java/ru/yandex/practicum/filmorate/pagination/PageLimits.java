@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.pagination;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.List;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PageLimits {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static void validatePageLimit(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page limit should be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    public static List<Long> distinctBatch(List<Long> ids) {
+        if (ids.contains(null)) {
+            throw new ValidationException("Ids should not contain empty values");
+        }
+        List<Long> requested = ids.stream().distinct().toList();
+        if (requested.isEmpty() || requested.size() > MAX_PAGE_SIZE) {
+            throw new ValidationException("Number of ids should be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return requested;
+    }
+}
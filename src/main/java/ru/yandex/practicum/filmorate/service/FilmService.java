@@ -4,10 +4,12 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.cache.FilmCache;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
 import ru.yandex.practicum.filmorate.dao.GenreRepository;
 import ru.yandex.practicum.filmorate.dao.RatingRepository;
-import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.dto.BatchResponse;
 import ru.yandex.practicum.filmorate.dto.film.FilmDto;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
 import ru.yandex.practicum.filmorate.dto.film.UpdateFilmRequest;
@@ -17,27 +19,50 @@ import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.pagination.CursorCodec;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
+import ru.yandex.practicum.filmorate.pagination.PageLimits;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class FilmService {
     private static final Logger logger = LoggerFactory.getLogger(FilmService.class);
-    private final FilmDbStorage filmDbStorage;
-    private final UserDbStorage userDbStorage;
+    private final FilmStorage filmStorage;
     private final GenreRepository genreRepository;
     private final RatingRepository ratingRepository;
-
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final FilmCache filmCache;
+    private final EntityVersions entityVersions;
 
     public List<FilmDto> getAllFilms() {
-        return filmDbStorage.getAll().stream().map(FilmMapper::mapToFilmDto).toList();
+        return filmStorage.getAll().stream().map(FilmMapper::mapToFilmDto).toList();
+    }
+
+    public KeysetPage<FilmDto> getFilmsPage(String after, int limit) {
+        PageLimits.validatePageLimit(limit);
+        return filmStorage.getPage(CursorCodec.decode(after), limit).map(FilmMapper::mapToFilmDto);
+    }
+
+    public void exportFilms(Consumer<FilmDto> consumer) {
+        filmStorage.streamAll(film -> consumer.accept(FilmMapper.mapToFilmDto(film)));
+    }
+
+    public String getFilmTag(long id) {
+        return entityVersions.filmTag(id);
+    }
+
+    public String getPopularTag(int count) {
+        return entityVersions.popularTag(count, popularFilmsIndex.version());
     }
 
     public FilmDto getFilmById(long id) {
-        return FilmMapper.mapToFilmDto(getFilm(id));
+        return filmCache.get(id, filmId -> FilmMapper.mapToFilmDto(getFilm(filmId)));
     }
 
     public FilmDto createFilm(NewFilmRequest request) {
@@ -45,7 +70,9 @@ public class FilmService {
         validateRating(request.getMpa());
 
         Film film = FilmMapper.mapToFilm(request);
-        Film createdFilm = filmDbStorage.create(film);
+        Film createdFilm = filmStorage.create(film);
+        popularFilmsIndex.put(createdFilm.getId(), 0);
+        entityVersions.filmChanged(createdFilm.getId());
 
         FilmDto createdFilmDto = FilmMapper.mapToFilmDto(createdFilm);
         logger.info("Film created successfully: {}", createdFilmDto);
@@ -59,58 +86,63 @@ public class FilmService {
 
         Film updatedFilm = getFilm(request.getId());
         FilmMapper.updateFilmFromRequest(updatedFilm, request);
-        filmDbStorage.update(updatedFilm);
+        filmStorage.update(updatedFilm);
+        filmCache.invalidate(updatedFilm.getId());
+        entityVersions.filmChanged(updatedFilm.getId());
 
         return FilmMapper.mapToFilmDto(updatedFilm);
     }
 
     public void deleteFilm(long id) {
-        filmDbStorage.deleteById(id);
+        filmStorage.deleteById(id);
+        filmCache.invalidate(id);
+        popularFilmsIndex.remove(id);
+        entityVersions.filmChanged(id);
     }
 
     public FilmDto addLike(long filmId, long userId) {
-        Film film = getFilm(filmId);
-        validateUserExists(userId);
-
-        if (!film.getLikes().add(userId)) {
-            throw new ValidationException("User with id " + userId + " already liked the film with id " + filmId);
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.like(filmId, userId);
+            return getFilmById(filmId);
         }
-
-        filmDbStorage.addLike(filmId, userId);
+        filmStorage.addLike(filmId, userId);
+        popularFilmsIndex.increment(filmId);
         logger.info("User with id {} liked the film with id {}", userId, filmId);
-        return FilmMapper.mapToFilmDto(film);
+        return getFilmById(filmId);
     }
 
     public FilmDto removeLike(long filmId, long userId) {
-        Film film = getFilm(filmId);
-        validateUserExists(userId);
-
-        if (!film.getLikes().remove(userId)) {
-            throw new ValidationException("User with id " + userId +
-                    " did not like the film with id " + filmId + ", so it cannot be removed.");
+        if (likeWriteBuffer.isEnabled()) {
+            likeWriteBuffer.unlike(filmId, userId);
+            return getFilmById(filmId);
         }
-
-        filmDbStorage.removeLike(filmId, userId);
+        filmStorage.removeLike(filmId, userId);
+        popularFilmsIndex.decrement(filmId);
         logger.info("User with id {} removed like from the film with id {}", userId, filmId);
-        return FilmMapper.mapToFilmDto(film);
+        return getFilmById(filmId);
     }
 
     public List<FilmDto> getBestByLikes(int count) {
-        if (count <= 0) {
-            throw new ValidationException("Number of films should be greater than 0");
+        if (count <= 0 || count > PageLimits.MAX_PAGE_SIZE) {
+            throw new ValidationException("Number of films should be between 1 and " + PageLimits.MAX_PAGE_SIZE);
         }
-        List<FilmDto> films = filmDbStorage.getBestByLikes(count)
-                .stream()
-                .map(FilmMapper::mapToFilmDto)
-                .collect(Collectors.toList());
+        List<FilmDto> films = filmCache.getAll(popularFilmsIndex.top(count), missing ->
+                filmStorage.findAllByIds(missing).stream().map(FilmMapper::mapToFilmDto).toList());
         if (films.isEmpty()) {
             logger.warn("No films found for the top {} by likes", count);
         }
         return films;
     }
 
+    public BatchResponse<FilmDto> getFilmsByIds(List<Long> ids) {
+        List<Long> requested = PageLimits.distinctBatch(ids);
+        List<FilmDto> films = filmCache.getAll(requested, missing ->
+                filmStorage.findAllByIds(missing).stream().map(FilmMapper::mapToFilmDto).toList());
+        return BatchResponse.of(requested, films, FilmDto::getId);
+    }
+
     private Film getFilm(long id) {
-        return filmDbStorage.findById(id)
+        return filmStorage.findById(id)
                 .orElseThrow(() -> new NotFoundException("Film with id " + id + " not found"));
     }
 
@@ -132,9 +164,4 @@ public class FilmService {
         }
     }
 
-    private void validateUserExists(long userId) {
-        userDbStorage.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User with id " + userId + " not found"));
-    }
-
 }
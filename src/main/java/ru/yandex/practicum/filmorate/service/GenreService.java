@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.dao.GenreRepository;
 import ru.yandex.practicum.filmorate.dto.film.genre.GenreDto;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -15,6 +16,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class GenreService {
     private final GenreRepository genreRepository;
+    private final EntityVersions entityVersions;
+
+    public String getGenresTag() {
+        return entityVersions.genresTag();
+    }
 
     public List<GenreDto> getAllGenres() {
         return genreRepository.getAll()
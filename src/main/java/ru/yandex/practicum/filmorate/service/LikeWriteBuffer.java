@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class LikeWriteBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(LikeWriteBuffer.class);
+    private final FilmStorage filmStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int capacity;
+    private static final int LOCK_STRIPES = 64;
+    private final Map<FilmLike, Boolean> pending = new ConcurrentHashMap<>();
+    private final Map<FilmLike, Boolean> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReentrantLock[] changeLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public LikeWriteBuffer(FilmStorage filmStorage,
+                           PopularFilmsIndex popularFilmsIndex,
+                           @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                           @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity) {
+        this.filmStorage = filmStorage;
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            changeLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void like(long filmId, long userId) {
+        change(new FilmLike(filmId, userId), true);
+    }
+
+    public void unlike(long filmId, long userId) {
+        change(new FilmLike(filmId, userId), false);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.likes.write-behind.flush-interval-ms:200}")
+    public void flushScheduled() {
+        if (!pending.isEmpty()) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void change(FilmLike like, boolean liked) {
+        while (pending.size() >= capacity && !pending.containsKey(like)) {
+            flush();
+        }
+        ReentrantLock lock = changeLocks[Math.floorMod(like.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            Boolean buffered = pending.get(like);
+            if (buffered == null) {
+                buffered = inFlight.get(like);
+            }
+            if (buffered == null) {
+                filmStorage.validateLikeChange(like.getFilmId(), like.getUserId(), liked);
+            } else if (buffered == liked) {
+                throw new ValidationException(liked
+                        ? "User with id " + like.getUserId() + " already liked the film with id " + like.getFilmId()
+                        : "User with id " + like.getUserId() + " did not like the film with id " + like.getFilmId()
+                        + ", so it cannot be removed.");
+            }
+            pending.put(like, liked);
+        } finally {
+            lock.unlock();
+        }
+        if (pending.size() >= batchSize && flushLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    private void drain() {
+        List<FilmLike> added = new ArrayList<>();
+        List<FilmLike> removed = new ArrayList<>();
+        for (Map.Entry<FilmLike, Boolean> entry : pending.entrySet()) {
+            inFlight.put(entry.getKey(), entry.getValue());
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                (entry.getValue() ? added : removed).add(entry.getKey());
+            } else {
+                inFlight.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        try {
+            filmStorage.applyLikeChanges(added, removed).forEach(popularFilmsIndex::put);
+        } catch (RuntimeException e) {
+            added.forEach(like -> pending.putIfAbsent(like, true));
+            removed.forEach(like -> pending.putIfAbsent(like, false));
+            logger.error("Failed to flush {} buffered like changes, they will be retried",
+                    added.size() + removed.size(), e);
+            throw e;
+        } finally {
+            inFlight.clear();
+        }
+        logger.debug("Flushed {} likes and {} unlikes", added.size(), removed.size());
+    }
+}
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.dao.RatingRepository;
 import ru.yandex.practicum.filmorate.dto.film.rating.RatingDto;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -16,6 +17,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RatingService {
     private final RatingRepository ratingRepository;
+    private final EntityVersions entityVersions;
+
+    public String getRatingsTag() {
+        return entityVersions.ratingsTag();
+    }
 
     public List<RatingDto> getAllRatings() {
         return ratingRepository.getAll()
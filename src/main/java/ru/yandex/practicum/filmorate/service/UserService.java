@@ -4,7 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.filmorate.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.dto.BatchResponse;
 import ru.yandex.practicum.filmorate.dto.user.NewUserRequest;
 import ru.yandex.practicum.filmorate.dto.user.UpdateUserRequest;
 import ru.yandex.practicum.filmorate.dto.user.UserDto;
@@ -12,85 +14,122 @@ import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.mapper.UserMapper;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.pagination.CursorCodec;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
+import ru.yandex.practicum.filmorate.pagination.PageLimits;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
-    private final UserDbStorage userDbStorage;
+    private final UserStorage userStorage;
+    private final EntityVersions entityVersions;
+    private final PopularFilmsIndex popularFilmsIndex;
 
     public List<UserDto> getAllUsers() {
-        return userDbStorage.getAll()
+        return userStorage.getAll()
                 .stream()
                 .map(UserMapper::mapToUserDto)
                 .collect(Collectors.toList());
     }
 
+    public KeysetPage<UserDto> getUsersPage(String after, int limit) {
+        PageLimits.validatePageLimit(limit);
+        return userStorage.getPage(CursorCodec.decode(after), limit).map(UserMapper::mapToUserDto);
+    }
+
+    public void exportUsers(Consumer<UserDto> consumer) {
+        userStorage.streamAll(user -> consumer.accept(UserMapper.mapToUserDto(user)));
+    }
+
+    public String getUserTag(long id) {
+        return entityVersions.userTag(id);
+    }
+
     public UserDto getUserById(long id) {
         return UserMapper.mapToUserDto(getUser(id));
     }
 
+    public BatchResponse<UserDto> getUsersByIds(List<Long> ids) {
+        List<Long> requested = PageLimits.distinctBatch(ids);
+        List<UserDto> users = userStorage.findAllByIds(requested)
+                .stream()
+                .map(UserMapper::mapToUserDto)
+                .toList();
+        return BatchResponse.of(requested, users, UserDto::getId);
+    }
+
     public UserDto createUser(NewUserRequest request) {
         User user = UserMapper.mapToUser(request);
-        user = userDbStorage.create(user);
+        user = userStorage.create(user);
+        entityVersions.userChanged(user.getId());
         return UserMapper.mapToUserDto(user);
     }
 
     public UserDto updateUser(UpdateUserRequest request) {
         User updatedUser = getUser(request.getId());
         UserMapper.updateUserFromRequest(updatedUser, request);
-        userDbStorage.update(updatedUser);
+        userStorage.update(updatedUser);
+        entityVersions.userChanged(updatedUser.getId());
         return UserMapper.mapToUserDto(updatedUser);
     }
 
     public void deleteUser(long id) {
-        userDbStorage.deleteById(id);
+        userStorage.deleteById(id).forEach(popularFilmsIndex::put);
+        entityVersions.userDeleted(id);
     }
 
     public List<UserDto> getUserFriends(long id) {
-        User user = getUser(id);
-        Set<Long> friendIds = userDbStorage.getFriendIds(id);
-        return friendIds.stream()
-                .map(this::getUser)
+        validateUserExists(id);
+        return userStorage.getFriends(id)
+                .stream()
                 .map(UserMapper::mapToUserDto)
                 .collect(Collectors.toList());
     }
 
+    public KeysetPage<UserDto> getUserFriendsPage(long id, String after, int limit) {
+        PageLimits.validatePageLimit(limit);
+        validateUserExists(id);
+        return userStorage.getFriendsPage(id, CursorCodec.decode(after), limit).map(UserMapper::mapToUserDto);
+    }
+
     public void sendFriendshipRequest(long requesterId, long receiverId) {
         if (requesterId == receiverId) {
             throw new ValidationException("User cannot add themselves as a friend.");
         }
 
-        userDbStorage.findById(receiverId)
+        userStorage.findById(receiverId)
                 .orElseThrow(() -> new NotFoundException("User with id " + receiverId + " not found"));
 
-        if (userDbStorage.isFriendshipExists(requesterId, receiverId)) {
+        if (userStorage.isFriendshipExists(requesterId, receiverId)) {
             throw new ValidationException("Friendship request already exists.");
         }
 
-        userDbStorage.sendFriendRequest(requesterId, receiverId);
+        userStorage.sendFriendRequest(requesterId, receiverId);
+        entityVersions.userChanged(requesterId);
         logger.info("User with id {} sent a friend request to user with id {}", requesterId, receiverId);
     }
 
     public void approveFriendshipRequest(long requesterId, long receiverId) {
-        if (!userDbStorage.isFriendshipExists(requesterId, receiverId)) {
+        if (!userStorage.isFriendshipExists(requesterId, receiverId)) {
             throw new ValidationException("No friend request found from user with id " + requesterId + " to user with id " + receiverId);
         }
 
-        userDbStorage.confirmFriendship(requesterId, receiverId);
+        userStorage.confirmFriendship(requesterId, receiverId);
         logger.info("User with id {} confirmed friendship request from user with id {}", receiverId, requesterId);
     }
 
     public void deleteFriend(long userId, long friendId) {
         getUser(userId);
         getUser(friendId);
-        if (userDbStorage.isFriendshipExists(userId, friendId)) {
-            userDbStorage.cancelFriendRequest(userId, friendId);
+        if (userStorage.isFriendshipExists(userId, friendId)) {
+            userStorage.cancelFriendRequest(userId, friendId);
+            entityVersions.userChanged(userId);
             logger.info("User with id {} removed friend with id {}", userId, friendId);
         } else {
             logger.warn("Friendship between user {} and {} not found for deletion", userId, friendId);
@@ -98,20 +137,26 @@ public class UserService {
     }
 
     public List<UserDto> getCommonFriends(long userId, long otherUserId) {
-        Set<Long> userFriends = userDbStorage.getFriendIds(userId);
-        Set<Long> otherUserFriends = userDbStorage.getFriendIds(otherUserId);
-
-        Set<Long> commonFriends = new HashSet<>(userFriends);
-        commonFriends.retainAll(otherUserFriends);
-
-        return commonFriends.stream()
-                .map(this::getUser)
+        return userStorage.getCommonFriends(userId, otherUserId)
+                .stream()
                 .map(UserMapper::mapToUserDto)
                 .collect(Collectors.toList());
     }
 
+    public KeysetPage<UserDto> getCommonFriendsPage(long userId, long otherUserId, String after, int limit) {
+        PageLimits.validatePageLimit(limit);
+        return userStorage.getCommonFriendsPage(userId, otherUserId, CursorCodec.decode(after), limit)
+                .map(UserMapper::mapToUserDto);
+    }
+
+    private void validateUserExists(long id) {
+        if (!userStorage.existsById(id)) {
+            throw new NotFoundException("User with id " + id + " not found");
+        }
+    }
+
     private User getUser(long id) {
-        return userDbStorage.findById(id)
+        return userStorage.findById(id)
                 .orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
     }
 }
@@ -1,13 +1,21 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     List<Film> getAll();
 
+    KeysetPage<Film> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<Film> consumer);
+
     Film create(Film newFilm);
 
     Film update(Film updatedFilm);
@@ -15,4 +23,20 @@ public interface FilmStorage {
     void deleteById(long id);
 
     Optional<Film> findById(long id);
+
+    List<Film> findAllByIds(List<Long> ids);
+
+    Map<Long, Long> getLikeCounts();
+
+    boolean hasLike(long filmId, long userId);
+
+    void validateLikeChange(long filmId, long userId, boolean like);
+
+    void addLike(long filmId, long userId);
+
+    void removeLike(long filmId, long userId);
+
+    Map<Long, Long> applyLikeChanges(List<FilmLike> added, List<FilmLike> removed);
+
+    int rebuildLikeCounts();
 }
@@ -0,0 +1,300 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.rating.RatingStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryFilmStorage implements FilmStorage {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryFilmStorage.class);
+    private static final int LOCK_STRIPES = 64;
+
+    private final AtomicLong ids = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, Film> films = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<Long>> likes = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+    private final InMemoryUserStorage userStorage;
+    private final GenreStorage genreStorage;
+    private final RatingStorage ratingStorage;
+
+    public InMemoryFilmStorage(InMemoryUserStorage userStorage, GenreStorage genreStorage,
+                               RatingStorage ratingStorage) {
+        this.userStorage = userStorage;
+        this.genreStorage = genreStorage;
+        this.ratingStorage = ratingStorage;
+        userStorage.addDeletionListener(this::removeLikesOfUser);
+    }
+
+    @Override
+    public List<Film> getAll() {
+        List<Film> all = new ArrayList<>(films.size());
+        films.values().forEach(film -> all.add(copy(film)));
+        return all;
+    }
+
+    @Override
+    public KeysetPage<Film> getPage(long afterId, int limit) {
+        List<Film> rows = new ArrayList<>(limit + 1);
+        for (Film film : films.tailMap(afterId, false).values()) {
+            if (rows.size() > limit) {
+                break;
+            }
+            rows.add(copy(film));
+        }
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<Film> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, items.get(limit - 1).getId());
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        films.values().forEach(film -> consumer.accept(copy(film)));
+    }
+
+    @Override
+    public Film create(Film newFilm) {
+        long id = ids.incrementAndGet();
+        newFilm.setId(id);
+        films.put(id, normalize(newFilm));
+        logger.info("Created film: {}", newFilm);
+        return newFilm;
+    }
+
+    @Override
+    public Film update(Film updatedFilm) {
+        films.computeIfPresent(updatedFilm.getId(), (id, current) -> normalize(updatedFilm));
+        logger.info("Updated film with id {}", updatedFilm.getId());
+        return updatedFilm;
+    }
+
+    @Override
+    public void deleteById(long id) {
+        Film removed = locks.withLock(id, () -> {
+            likes.remove(id);
+            return films.remove(id);
+        });
+        if (removed != null) {
+            logger.info("Deleted film with id {}", id);
+        } else {
+            logger.warn("Film with id {} not found for deletion", id);
+        }
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return Optional.ofNullable(films.get(id)).map(this::copy);
+    }
+
+    @Override
+    public List<Film> findAllByIds(List<Long> ids) {
+        List<Film> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Optional.ofNullable(films.get(id)).map(this::copy).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public Map<Long, Long> getLikeCounts() {
+        Map<Long, Long> likeCounts = new HashMap<>();
+        films.keySet().forEach(filmId -> likeCounts.put(filmId, likeCount(filmId)));
+        return likeCounts;
+    }
+
+    @Override
+    public boolean hasLike(long filmId, long userId) {
+        Set<Long> filmLikes = likes.get(filmId);
+        return filmLikes != null && filmLikes.contains(userId);
+    }
+
+    @Override
+    public void validateLikeChange(long filmId, long userId, boolean like) {
+        if (!films.containsKey(filmId)) {
+            throw new NotFoundException("Film with id " + filmId + " not found");
+        }
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("User with id " + userId + " not found");
+        }
+        if (hasLike(filmId, userId) == like) {
+            throw new ValidationException(like
+                    ? "User with id " + userId + " already liked the film with id " + filmId
+                    : "User with id " + userId + " did not like the film with id " + filmId
+                    + ", so it cannot be removed.");
+        }
+    }
+
+    @Override
+    public void addLike(long filmId, long userId) {
+        locks.withLocks(filmId, userId, () -> {
+            if (!films.containsKey(filmId)) {
+                throw new NotFoundException("Film with id " + filmId + " not found");
+            }
+            if (!userStorage.existsById(userId)) {
+                throw new NotFoundException("User with id " + userId + " not found");
+            }
+            if (!likes.computeIfAbsent(filmId, id -> ConcurrentHashMap.newKeySet()).add(userId)) {
+                throw new ValidationException("User with id " + userId + " already liked the film with id " + filmId);
+            }
+        });
+        logger.info("Added like for filmId {} by userId {}", filmId, userId);
+    }
+
+    @Override
+    public void removeLike(long filmId, long userId) {
+        locks.withLocks(filmId, userId, () -> {
+            Set<Long> filmLikes = likes.get(filmId);
+            if (filmLikes != null && filmLikes.remove(userId)) {
+                return;
+            }
+            if (!films.containsKey(filmId)) {
+                throw new NotFoundException("Film with id " + filmId + " not found");
+            }
+            if (!userStorage.existsById(userId)) {
+                throw new NotFoundException("User with id " + userId + " not found");
+            }
+            throw new ValidationException("User with id " + userId +
+                    " did not like the film with id " + filmId + ", so it cannot be removed.");
+        });
+        logger.info("Removed like for filmId {} by userId {}", filmId, userId);
+    }
+
+    @Override
+    public Map<Long, Long> applyLikeChanges(List<FilmLike> added, List<FilmLike> removed) {
+        for (FilmLike like : added) {
+            locks.withLocks(like.getFilmId(), like.getUserId(), () -> {
+                if (films.containsKey(like.getFilmId()) && userStorage.existsById(like.getUserId())) {
+                    likes.computeIfAbsent(like.getFilmId(), id -> ConcurrentHashMap.newKeySet()).add(like.getUserId());
+                }
+            });
+        }
+        for (FilmLike like : removed) {
+            locks.withLocks(like.getFilmId(), like.getUserId(), () -> {
+                Set<Long> filmLikes = likes.get(like.getFilmId());
+                if (filmLikes != null) {
+                    filmLikes.remove(like.getUserId());
+                }
+            });
+        }
+        Map<Long, Long> likeCounts = new HashMap<>();
+        added.forEach(like -> putLikeCount(likeCounts, like.getFilmId()));
+        removed.forEach(like -> putLikeCount(likeCounts, like.getFilmId()));
+        logger.info("Applied {} likes and {} unlikes for {} films", added.size(), removed.size(), likeCounts.size());
+        return likeCounts;
+    }
+
+    @Override
+    public int rebuildLikeCounts() {
+        logger.info("Like counters are derived from the like sets, nothing to rebuild");
+        return 0;
+    }
+
+    void clear() {
+        films.clear();
+        likes.clear();
+        ids.set(0);
+    }
+
+    long lastId() {
+        return ids.get();
+    }
+
+    void restoreLastId(long lastId) {
+        ids.accumulateAndGet(lastId, Math::max);
+    }
+
+    void restore(Film film) {
+        restoreLastId(film.getId());
+        films.put(film.getId(), normalize(film));
+    }
+
+    void restoreLike(long filmId, long userId, boolean liked) {
+        if (!liked) {
+            Set<Long> filmLikes = likes.get(filmId);
+            if (filmLikes != null) {
+                filmLikes.remove(userId);
+            }
+        } else if (films.containsKey(filmId) && userStorage.existsById(userId)) {
+            likes.computeIfAbsent(filmId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+    }
+
+    void forEachLike(BiConsumer<Long, Long> consumer) {
+        likes.forEach((filmId, userIds) -> userIds.forEach(userId -> consumer.accept(filmId, userId)));
+    }
+
+    private void putLikeCount(Map<Long, Long> likeCounts, long filmId) {
+        if (films.containsKey(filmId)) {
+            likeCounts.put(filmId, likeCount(filmId));
+        }
+    }
+
+    private Map<Long, Long> removeLikesOfUser(long userId) {
+        return locks.withLock(userId, () -> {
+            Map<Long, Long> likeCounts = new HashMap<>();
+            likes.forEach((filmId, filmLikes) -> {
+                if (filmLikes.remove(userId)) {
+                    likeCounts.put(filmId, (long) filmLikes.size());
+                }
+            });
+            return likeCounts;
+        });
+    }
+
+    private long likeCount(long filmId) {
+        Set<Long> filmLikes = likes.get(filmId);
+        return filmLikes != null ? filmLikes.size() : 0;
+    }
+
+    private Film normalize(Film source) {
+        Film film = copy(source);
+        film.setRating(Optional.ofNullable(source.getRating())
+                .flatMap(rating -> ratingStorage.findById(rating.getId()))
+                .orElse(source.getRating()));
+        film.setGenres(source.getGenres() == null ? new LinkedHashSet<>() : source.getGenres().stream()
+                .map(genre -> genreStorage.findById(genre.getId()).orElse(genre))
+                .sorted(Comparator.comparing(Genre::getId))
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        return film;
+    }
+
+    private Film copy(Film source) {
+        Film film = new Film();
+        film.setId(source.getId());
+        film.setName(source.getName());
+        film.setDescription(source.getDescription());
+        film.setReleaseDate(source.getReleaseDate());
+        film.setDuration(source.getDuration());
+        film.setRating(source.getRating());
+        film.setGenres(source.getGenres() == null ? new LinkedHashSet<>() : new LinkedHashSet<>(source.getGenres()));
+        film.setLikeCount(source.getId() == null ? 0 : likeCount(source.getId()));
+        return film;
+    }
+}
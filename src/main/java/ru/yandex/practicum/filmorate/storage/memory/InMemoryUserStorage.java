@@ -0,0 +1,309 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.LongIdSet;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryUserStorage implements UserStorage {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryUserStorage.class);
+    private static final int LOCK_STRIPES = 64;
+
+    private final AtomicLong ids = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> logins = new ConcurrentHashMap<>();
+    private final Map<Long, ConcurrentSkipListMap<Long, Boolean>> friendships = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+    private final List<LongFunction<Map<Long, Long>>> deletionListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public List<User> getAll() {
+        return copies(users.values());
+    }
+
+    @Override
+    public KeysetPage<User> getPage(long afterId, int limit) {
+        return page(users.tailMap(afterId, false), limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        users.values().forEach(user -> consumer.accept(copy(user)));
+    }
+
+    @Override
+    public User create(User newUser) {
+        long id = ids.incrementAndGet();
+        if (logins.putIfAbsent(newUser.getLogin(), id) != null) {
+            throw new ValidationException("Login '" + newUser.getLogin() + "' is already in use.");
+        }
+        newUser.setId(id);
+        users.put(id, copy(newUser));
+        logger.info("User with ID {} was successfully created.", id);
+        return newUser;
+    }
+
+    @Override
+    public User update(User updatedUser) {
+        long id = updatedUser.getId();
+        locks.withLock(id, () -> {
+            User current = users.get(id);
+            if (current == null) {
+                return;
+            }
+            if (!current.getLogin().equals(updatedUser.getLogin())) {
+                if (logins.putIfAbsent(updatedUser.getLogin(), id) != null) {
+                    throw new ValidationException("Login '" + updatedUser.getLogin() + "' is already in use.");
+                }
+                logins.remove(current.getLogin(), id);
+            }
+            users.put(id, copy(updatedUser));
+        });
+        return updatedUser;
+    }
+
+    @Override
+    public Map<Long, Long> deleteById(long id) {
+        Map<Long, Long> likeCounts = new HashMap<>();
+        locks.withLock(id, () -> {
+            User removed = users.remove(id);
+            if (removed == null) {
+                return;
+            }
+            logins.remove(removed.getLogin(), id);
+            friendships.remove(id);
+            friendships.values().forEach(friends -> friends.remove(id));
+            deletionListeners.forEach(listener -> likeCounts.putAll(listener.apply(id)));
+        });
+        return likeCounts;
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(users.get(id)).map(this::copy);
+    }
+
+    @Override
+    public List<User> findAllByIds(List<Long> ids) {
+        List<User> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Optional.ofNullable(users.get(id)).map(this::copy).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public boolean existsById(long id) {
+        return users.containsKey(id);
+    }
+
+    @Override
+    public boolean isLoginExists(String login) {
+        return logins.containsKey(login);
+    }
+
+    @Override
+    public List<User> getFriends(long userId) {
+        return resolve(friendsOf(userId).keySet());
+    }
+
+    @Override
+    public KeysetPage<User> getFriendsPage(long userId, long afterId, int limit) {
+        List<User> friends = new ArrayList<>(limit + 1);
+        for (Long friendId : friendsOf(userId).tailMap(afterId, false).keySet()) {
+            if (friends.size() > limit) {
+                break;
+            }
+            Optional.ofNullable(users.get(friendId)).map(this::copy).ifPresent(friends::add);
+        }
+        return toPage(friends, limit);
+    }
+
+    @Override
+    public List<User> getCommonFriends(long userId, long otherUserId) {
+        NavigableMap<Long, Boolean> otherFriends = friendsOf(otherUserId);
+        return resolve(friendsOf(userId).keySet().stream().filter(otherFriends::containsKey).toList());
+    }
+
+    @Override
+    public KeysetPage<User> getCommonFriendsPage(long userId, long otherUserId, long afterId, int limit) {
+        NavigableMap<Long, Boolean> otherFriends = friendsOf(otherUserId);
+        List<User> common = new ArrayList<>();
+        for (Long friendId : friendsOf(userId).tailMap(afterId, false).keySet()) {
+            if (common.size() > limit) {
+                break;
+            }
+            if (otherFriends.containsKey(friendId)) {
+                Optional.ofNullable(users.get(friendId)).map(this::copy).ifPresent(common::add);
+            }
+        }
+        return toPage(common, limit);
+    }
+
+    @Override
+    public LongIdSet getFriendIds(long userId) {
+        return LongIdSet.copyOf(friendsOf(userId).keySet());
+    }
+
+    @Override
+    public void sendFriendRequest(long userId, long friendId) {
+        locks.withLocks(userId, friendId, () -> {
+            requireUser(userId);
+            requireUser(friendId);
+            if (friendships.computeIfAbsent(userId, id -> new ConcurrentSkipListMap<>())
+                    .putIfAbsent(friendId, false) != null) {
+                throw new ValidationException("Friendship request already exists.");
+            }
+        });
+        logger.info("User with id {} send friendship request to user with id {}", userId, friendId);
+    }
+
+    @Override
+    public void cancelFriendRequest(long userId, long friendId) {
+        locks.withLock(userId, () -> forgetFriendship(userId, friendId));
+        logger.info("User with id {} removed friend with id {}", userId, friendId);
+    }
+
+    @Override
+    public void confirmFriendship(long requesterId, long receiverId) {
+        Map<Long, Boolean> requests = friendships.get(requesterId);
+        if (requests == null || requests.replace(receiverId, true) == null) {
+            throw new NotFoundException("Friendship request not found for requester_id: " + requesterId + " and receiver_id: " + receiverId);
+        }
+        logger.info("Friendship confirmed between requester_id: {} and receiver_id: {}", requesterId, receiverId);
+    }
+
+    @Override
+    public boolean isFriendshipExists(long requesterId, long receiverId) {
+        return friendsOf(requesterId).containsKey(receiverId);
+    }
+
+    void addDeletionListener(LongFunction<Map<Long, Long>> listener) {
+        deletionListeners.add(listener);
+    }
+
+    void clear() {
+        users.clear();
+        logins.clear();
+        friendships.clear();
+        ids.set(0);
+    }
+
+    long lastId() {
+        return ids.get();
+    }
+
+    void restoreLastId(long lastId) {
+        ids.accumulateAndGet(lastId, Math::max);
+    }
+
+    void restore(User user) {
+        long id = user.getId();
+        restoreLastId(id);
+        User previous = users.put(id, copy(user));
+        if (previous != null) {
+            logins.remove(previous.getLogin(), id);
+        }
+        logins.put(user.getLogin(), id);
+    }
+
+    void restoreFriendship(long requesterId, long receiverId, boolean confirmed) {
+        if (users.containsKey(requesterId) && users.containsKey(receiverId)) {
+            friendships.computeIfAbsent(requesterId, id -> new ConcurrentSkipListMap<>()).put(receiverId, confirmed);
+        }
+    }
+
+    void forgetFriendship(long requesterId, long receiverId) {
+        Map<Long, Boolean> friends = friendships.get(requesterId);
+        if (friends != null) {
+            friends.remove(receiverId);
+        }
+    }
+
+    void forEachFriendship(FriendshipConsumer consumer) {
+        friendships.forEach((requesterId, receivers) -> receivers.forEach((receiverId, confirmed) ->
+                consumer.accept(requesterId, receiverId, confirmed)));
+    }
+
+    private NavigableMap<Long, Boolean> friendsOf(long userId) {
+        NavigableMap<Long, Boolean> friends = friendships.get(userId);
+        return friends != null ? friends : Collections.emptyNavigableMap();
+    }
+
+    private void requireUser(long id) {
+        if (!users.containsKey(id)) {
+            throw new NotFoundException("User with id " + id + " not found");
+        }
+    }
+
+    private List<User> resolve(Collection<Long> userIds) {
+        List<User> resolved = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            Optional.ofNullable(users.get(userId)).map(this::copy).ifPresent(resolved::add);
+        }
+        return resolved;
+    }
+
+    private List<User> copies(Collection<User> source) {
+        List<User> copies = new ArrayList<>(source.size());
+        source.forEach(user -> copies.add(copy(user)));
+        return copies;
+    }
+
+    private KeysetPage<User> page(NavigableMap<Long, User> source, int limit) {
+        List<User> rows = new ArrayList<>(limit + 1);
+        for (User user : source.values()) {
+            if (rows.size() > limit) {
+                break;
+            }
+            rows.add(copy(user));
+        }
+        return toPage(rows, limit);
+    }
+
+    private static KeysetPage<User> toPage(List<User> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<User> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, items.get(limit - 1).getId());
+    }
+
+    private User copy(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setName(source.getName());
+        user.setEmail(source.getEmail());
+        user.setLogin(source.getLogin());
+        user.setBirthday(source.getBirthday());
+        user.setFriends(getFriendIds(source.getId()));
+        return user;
+    }
+
+    interface FriendshipConsumer {
+        void accept(long requesterId, long receiverId, boolean confirmed);
+    }
+}
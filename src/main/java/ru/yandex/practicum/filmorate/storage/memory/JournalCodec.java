@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class JournalCodec {
+    static final int FRAME_HEADER_BYTES = Integer.BYTES * 2;
+    static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+    private static final byte SEQUENCES = 1;
+    private static final byte USER_SAVED = 2;
+    private static final byte USER_DELETED = 3;
+    private static final byte FRIEND_REQUESTED = 4;
+    private static final byte FRIENDSHIP_CONFIRMED = 5;
+    private static final byte FRIEND_REMOVED = 6;
+    private static final byte FILM_SAVED = 7;
+    private static final byte FILM_DELETED = 8;
+    private static final byte LIKE_ADDED = 9;
+    private static final byte LIKE_REMOVED = 10;
+
+    static ByteBuffer frame(JournalEntry entry) {
+        byte[] payload = encode(entry);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+        frame.putInt(payload.length).putInt(checksum(payload, 0, payload.length)).put(payload);
+        return frame.flip();
+    }
+
+    static int checksum(byte[] payload, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    static JournalEntry decode(byte[] payload, int length) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 0, length));
+            byte type = in.readByte();
+            return switch (type) {
+                case SEQUENCES -> new JournalEntry.Sequences(in.readLong(), in.readLong());
+                case USER_SAVED -> new JournalEntry.UserSaved(readUser(in));
+                case USER_DELETED -> new JournalEntry.UserDeleted(in.readLong());
+                case FRIEND_REQUESTED -> new JournalEntry.FriendRequested(in.readLong(), in.readLong());
+                case FRIENDSHIP_CONFIRMED -> new JournalEntry.FriendshipConfirmed(in.readLong(), in.readLong());
+                case FRIEND_REMOVED -> new JournalEntry.FriendRemoved(in.readLong(), in.readLong());
+                case FILM_SAVED -> new JournalEntry.FilmSaved(readFilm(in));
+                case FILM_DELETED -> new JournalEntry.FilmDeleted(in.readLong());
+                case LIKE_ADDED -> new JournalEntry.LikeAdded(in.readLong(), in.readLong());
+                case LIKE_REMOVED -> new JournalEntry.LikeRemoved(in.readLong(), in.readLong());
+                default -> throw new IOException("Unknown journal entry type " + type);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encode(JournalEntry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (entry) {
+                case JournalEntry.Sequences e -> {
+                    out.writeByte(SEQUENCES);
+                    out.writeLong(e.lastUserId());
+                    out.writeLong(e.lastFilmId());
+                }
+                case JournalEntry.UserSaved e -> {
+                    out.writeByte(USER_SAVED);
+                    writeUser(out, e.user());
+                }
+                case JournalEntry.UserDeleted e -> {
+                    out.writeByte(USER_DELETED);
+                    out.writeLong(e.userId());
+                }
+                case JournalEntry.FriendRequested e -> writePair(out, FRIEND_REQUESTED, e.requesterId(), e.receiverId());
+                case JournalEntry.FriendshipConfirmed e ->
+                        writePair(out, FRIENDSHIP_CONFIRMED, e.requesterId(), e.receiverId());
+                case JournalEntry.FriendRemoved e -> writePair(out, FRIEND_REMOVED, e.requesterId(), e.receiverId());
+                case JournalEntry.FilmSaved e -> {
+                    out.writeByte(FILM_SAVED);
+                    writeFilm(out, e.film());
+                }
+                case JournalEntry.FilmDeleted e -> {
+                    out.writeByte(FILM_DELETED);
+                    out.writeLong(e.filmId());
+                }
+                case JournalEntry.LikeAdded e -> writePair(out, LIKE_ADDED, e.filmId(), e.userId());
+                case JournalEntry.LikeRemoved e -> writePair(out, LIKE_REMOVED, e.filmId(), e.userId());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writePair(DataOutputStream out, byte type, long first, long second) throws IOException {
+        out.writeByte(type);
+        out.writeLong(first);
+        out.writeLong(second);
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeLong(user.getId());
+        writeString(out, user.getName());
+        writeString(out, user.getEmail());
+        writeString(out, user.getLogin());
+        writeDate(out, user.getBirthday());
+    }
+
+    private static User readUser(DataInput in) throws IOException {
+        User user = new User();
+        user.setId(in.readLong());
+        user.setName(readString(in));
+        user.setEmail(readString(in));
+        user.setLogin(readString(in));
+        user.setBirthday(readDate(in));
+        return user;
+    }
+
+    private static void writeFilm(DataOutputStream out, Film film) throws IOException {
+        out.writeLong(film.getId());
+        writeString(out, film.getName());
+        writeString(out, film.getDescription());
+        writeDate(out, film.getReleaseDate());
+        out.writeLong(film.getDuration());
+        out.writeLong(film.getRating() != null ? film.getRating().getId() : -1);
+        Set<Genre> genres = film.getGenres() != null ? film.getGenres() : Set.of();
+        out.writeShort(genres.size());
+        for (Genre genre : genres) {
+            out.writeLong(genre.getId());
+        }
+    }
+
+    private static Film readFilm(DataInput in) throws IOException {
+        Film film = new Film();
+        film.setId(in.readLong());
+        film.setName(readString(in));
+        film.setDescription(readString(in));
+        film.setReleaseDate(readDate(in));
+        film.setDuration(in.readLong());
+        long ratingId = in.readLong();
+        film.setRating(ratingId >= 0 ? new Rating(ratingId, null) : null);
+        int genreCount = in.readShort();
+        Set<Genre> genres = new LinkedHashSet<>();
+        for (int i = 0; i < genreCount; i++) {
+            genres.add(new Genre(in.readLong(), null));
+        }
+        film.setGenres(genres);
+        return film;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+sealed interface JournalEntry {
+
+    record Sequences(long lastUserId, long lastFilmId) implements JournalEntry {
+    }
+
+    record UserSaved(User user) implements JournalEntry {
+    }
+
+    record UserDeleted(long userId) implements JournalEntry {
+    }
+
+    record FriendRequested(long requesterId, long receiverId) implements JournalEntry {
+    }
+
+    record FriendshipConfirmed(long requesterId, long receiverId) implements JournalEntry {
+    }
+
+    record FriendRemoved(long requesterId, long receiverId) implements JournalEntry {
+    }
+
+    record FilmSaved(Film film) implements JournalEntry {
+    }
+
+    record FilmDeleted(long filmId) implements JournalEntry {
+    }
+
+    record LikeAdded(long filmId, long userId) implements JournalEntry {
+    }
+
+    record LikeRemoved(long filmId, long userId) implements JournalEntry {
+    }
+}
@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+@Primary
+@Profile("journal")
+public class JournaledFilmStorage implements FilmStorage {
+    private final InMemoryFilmStorage delegate;
+    private final JournaledStore store;
+
+    public JournaledFilmStorage(InMemoryFilmStorage delegate, JournaledStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public List<Film> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public KeysetPage<Film> getPage(long afterId, int limit) {
+        return delegate.getPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public Film create(Film newFilm) {
+        return store.mutate(() -> delegate.create(newFilm), created -> List.of(new JournalEntry.FilmSaved(created)));
+    }
+
+    @Override
+    public Film update(Film updatedFilm) {
+        return store.mutate(() -> delegate.update(updatedFilm), updated -> delegate.findById(updated.getId())
+                .<List<JournalEntry>>map(film -> List.of(new JournalEntry.FilmSaved(film)))
+                .orElse(List.of()));
+    }
+
+    @Override
+    public void deleteById(long id) {
+        store.mutate(() -> delegate.deleteById(id), new JournalEntry.FilmDeleted(id));
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Film> findAllByIds(List<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public Map<Long, Long> getLikeCounts() {
+        return delegate.getLikeCounts();
+    }
+
+    @Override
+    public boolean hasLike(long filmId, long userId) {
+        return delegate.hasLike(filmId, userId);
+    }
+
+    @Override
+    public void validateLikeChange(long filmId, long userId, boolean like) {
+        delegate.validateLikeChange(filmId, userId, like);
+    }
+
+    @Override
+    public void addLike(long filmId, long userId) {
+        store.mutate(() -> delegate.addLike(filmId, userId), new JournalEntry.LikeAdded(filmId, userId));
+    }
+
+    @Override
+    public void removeLike(long filmId, long userId) {
+        store.mutate(() -> delegate.removeLike(filmId, userId), new JournalEntry.LikeRemoved(filmId, userId));
+    }
+
+    @Override
+    public Map<Long, Long> applyLikeChanges(List<FilmLike> added, List<FilmLike> removed) {
+        List<JournalEntry> entries = new ArrayList<>(added.size() + removed.size());
+        added.forEach(like -> entries.add(new JournalEntry.LikeAdded(like.getFilmId(), like.getUserId())));
+        removed.forEach(like -> entries.add(new JournalEntry.LikeRemoved(like.getFilmId(), like.getUserId())));
+        return store.mutate(() -> delegate.applyLikeChanges(added, removed), likeCounts -> entries);
+    }
+
+    @Override
+    public int rebuildLikeCounts() {
+        return delegate.rebuildLikeCounts();
+    }
+}
@@ -0,0 +1,239 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.RepositoryException;
+import ru.yandex.practicum.filmorate.storage.StorageReloadedEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+@Component
+@Profile("journal")
+public class JournaledStore {
+    private static final Logger logger = LoggerFactory.getLogger(JournaledStore.class);
+
+    private final InMemoryUserStorage userStorage;
+    private final InMemoryFilmStorage filmStorage;
+    private final MeterRegistry registry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path directory;
+    private final boolean fsync;
+    private final int maxBatch;
+    private final ReentrantLock mutationLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private MutationJournal journal;
+    private long segment;
+
+    public JournaledStore(InMemoryUserStorage userStorage,
+                          InMemoryFilmStorage filmStorage,
+                          ObjectProvider<MeterRegistry> registry,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${filmorate.journal.directory:./db/journal}") Path directory,
+                          @Value("${filmorate.journal.fsync:true}") boolean fsync,
+                          @Value("${filmorate.journal.max-batch:1024}") int maxBatch) {
+        this.userStorage = userStorage;
+        this.filmStorage = filmStorage;
+        this.registry = registry.getIfAvailable(SimpleMeterRegistry::new);
+        this.eventPublisher = eventPublisher;
+        this.directory = directory;
+        this.fsync = fsync;
+        this.maxBatch = maxBatch;
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Long> snapshots = numbers(SnapshotFiles::segmentNumber);
+        long snapshot = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        long entries = 0;
+        if (snapshot > 0) {
+            entries += SnapshotFiles.read(SnapshotFiles.path(directory, snapshot), this::apply);
+        }
+        List<Long> segments = numbers(MutationJournal::segmentNumber).stream()
+                .filter(number -> number >= snapshot)
+                .toList();
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = MutationJournal.segmentPath(directory, segments.get(i));
+            entries += MutationJournal.replay(path, i == segments.size() - 1, this::apply);
+        }
+        segment = segments.isEmpty() ? Math.max(snapshot, 1) : segments.get(segments.size() - 1);
+        journal = new MutationJournal(directory, segment, fsync, maxBatch, registry);
+        logger.info("Recovered {} journal entries from snapshot {} and {} segments in {} ms", entries, snapshot,
+                segments.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.journal.snapshot-interval-ms:600000}",
+            initialDelayString = "${filmorate.journal.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            long started = System.nanoTime();
+            long next;
+            CompletableFuture<Void> rotated;
+            mutationLock.lock();
+            try {
+                next = segment + 1;
+                rotated = journal.rotate(next);
+                segment = next;
+            } finally {
+                mutationLock.unlock();
+            }
+            await(rotated);
+            long bytes = SnapshotFiles.write(SnapshotFiles.path(directory, next), this::writeState);
+            deleteBefore(next);
+            logger.info("Wrote snapshot {} ({} bytes) in {} ms", next, bytes,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            throw new RepositoryException("Failed to write snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            snapshot();
+        } finally {
+            journal.close();
+        }
+    }
+
+    <T> T mutate(Supplier<T> mutation, Function<T, List<JournalEntry>> entries) {
+        CompletableFuture<Void> durable;
+        MutationJournal target;
+        T result;
+        mutationLock.lock();
+        try {
+            target = journal;
+            if (target.isFailed()) {
+                throw new RepositoryException("Journal is unavailable, the change was not applied");
+            }
+            result = mutation.get();
+            durable = target.append(entries.apply(result));
+        } finally {
+            mutationLock.unlock();
+        }
+        try {
+            await(durable);
+        } catch (RepositoryException e) {
+            reload(target);
+            throw e;
+        }
+        return result;
+    }
+
+    void mutate(Runnable mutation, JournalEntry entry) {
+        mutate(() -> {
+            mutation.run();
+            return entry;
+        }, List::of);
+    }
+
+    private void reload(MutationJournal failed) {
+        snapshotLock.lock();
+        mutationLock.lock();
+        try {
+            if (journal != failed || !failed.isFailed()) {
+                return;
+            }
+            failed.close();
+            filmStorage.clear();
+            userStorage.clear();
+            recover();
+            logger.warn("Reloaded in-memory state from disk after a failed journal write");
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to reload in-memory state after a failed journal write", e);
+        } finally {
+            mutationLock.unlock();
+            snapshotLock.unlock();
+        }
+        eventPublisher.publishEvent(new StorageReloadedEvent());
+    }
+
+    private void writeState(Consumer<JournalEntry> sink) {
+        sink.accept(new JournalEntry.Sequences(userStorage.lastId(), filmStorage.lastId()));
+        userStorage.streamAll(user -> sink.accept(new JournalEntry.UserSaved(user)));
+        userStorage.forEachFriendship((requesterId, receiverId, confirmed) -> {
+            sink.accept(new JournalEntry.FriendRequested(requesterId, receiverId));
+            if (confirmed) {
+                sink.accept(new JournalEntry.FriendshipConfirmed(requesterId, receiverId));
+            }
+        });
+        filmStorage.streamAll(film -> sink.accept(new JournalEntry.FilmSaved(film)));
+        filmStorage.forEachLike((filmId, userId) -> sink.accept(new JournalEntry.LikeAdded(filmId, userId)));
+    }
+
+    private void apply(JournalEntry entry) {
+        switch (entry) {
+            case JournalEntry.Sequences e -> {
+                userStorage.restoreLastId(e.lastUserId());
+                filmStorage.restoreLastId(e.lastFilmId());
+            }
+            case JournalEntry.UserSaved e -> userStorage.restore(e.user());
+            case JournalEntry.UserDeleted e -> userStorage.deleteById(e.userId());
+            case JournalEntry.FriendRequested e -> userStorage.restoreFriendship(e.requesterId(), e.receiverId(), false);
+            case JournalEntry.FriendshipConfirmed e ->
+                    userStorage.restoreFriendship(e.requesterId(), e.receiverId(), true);
+            case JournalEntry.FriendRemoved e -> userStorage.forgetFriendship(e.requesterId(), e.receiverId());
+            case JournalEntry.FilmSaved e -> filmStorage.restore(e.film());
+            case JournalEntry.FilmDeleted e -> filmStorage.deleteById(e.filmId());
+            case JournalEntry.LikeAdded e -> filmStorage.restoreLike(e.filmId(), e.userId(), true);
+            case JournalEntry.LikeRemoved e -> filmStorage.restoreLike(e.filmId(), e.userId(), false);
+        }
+    }
+
+    private void deleteBefore(long snapshotSegment) throws IOException {
+        for (long number : numbers(MutationJournal::segmentNumber)) {
+            if (number < snapshotSegment) {
+                Files.deleteIfExists(MutationJournal.segmentPath(directory, number));
+            }
+        }
+        for (long number : numbers(SnapshotFiles::segmentNumber)) {
+            if (number < snapshotSegment) {
+                Files.deleteIfExists(SnapshotFiles.path(directory, number));
+            }
+        }
+    }
+
+    private List<Long> numbers(ToLongFunction<Path> numbering) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(numbering)
+                    .filter(number -> number >= 0)
+                    .sorted()
+                    .boxed()
+                    .toList();
+        }
+    }
+
+    private void await(CompletableFuture<Void> durable) {
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            throw new RepositoryException("Failed to persist the change to the journal", e.getCause());
+        }
+    }
+}
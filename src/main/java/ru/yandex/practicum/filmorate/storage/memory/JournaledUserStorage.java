@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.LongIdSet;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+@Primary
+@Profile("journal")
+public class JournaledUserStorage implements UserStorage {
+    private final InMemoryUserStorage delegate;
+    private final JournaledStore store;
+
+    public JournaledUserStorage(InMemoryUserStorage delegate, JournaledStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public List<User> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public KeysetPage<User> getPage(long afterId, int limit) {
+        return delegate.getPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        delegate.streamAll(consumer);
+    }
+
+    @Override
+    public User create(User newUser) {
+        return store.mutate(() -> delegate.create(newUser), created -> List.of(new JournalEntry.UserSaved(created)));
+    }
+
+    @Override
+    public User update(User updatedUser) {
+        return store.mutate(() -> delegate.update(updatedUser), updated -> delegate.findById(updated.getId())
+                .<List<JournalEntry>>map(user -> List.of(new JournalEntry.UserSaved(user)))
+                .orElse(List.of()));
+    }
+
+    @Override
+    public Map<Long, Long> deleteById(long id) {
+        return store.mutate(() -> delegate.deleteById(id), likeCounts -> List.of(new JournalEntry.UserDeleted(id)));
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<User> findAllByIds(List<Long> ids) {
+        return delegate.findAllByIds(ids);
+    }
+
+    @Override
+    public boolean existsById(long id) {
+        return delegate.existsById(id);
+    }
+
+    @Override
+    public boolean isLoginExists(String login) {
+        return delegate.isLoginExists(login);
+    }
+
+    @Override
+    public List<User> getFriends(long userId) {
+        return delegate.getFriends(userId);
+    }
+
+    @Override
+    public KeysetPage<User> getFriendsPage(long userId, long afterId, int limit) {
+        return delegate.getFriendsPage(userId, afterId, limit);
+    }
+
+    @Override
+    public List<User> getCommonFriends(long userId, long otherUserId) {
+        return delegate.getCommonFriends(userId, otherUserId);
+    }
+
+    @Override
+    public KeysetPage<User> getCommonFriendsPage(long userId, long otherUserId, long afterId, int limit) {
+        return delegate.getCommonFriendsPage(userId, otherUserId, afterId, limit);
+    }
+
+    @Override
+    public LongIdSet getFriendIds(long userId) {
+        return delegate.getFriendIds(userId);
+    }
+
+    @Override
+    public void sendFriendRequest(long userId, long friendId) {
+        store.mutate(() -> delegate.sendFriendRequest(userId, friendId),
+                new JournalEntry.FriendRequested(userId, friendId));
+    }
+
+    @Override
+    public void cancelFriendRequest(long userId, long friendId) {
+        store.mutate(() -> delegate.cancelFriendRequest(userId, friendId),
+                new JournalEntry.FriendRemoved(userId, friendId));
+    }
+
+    @Override
+    public void confirmFriendship(long requesterId, long receiverId) {
+        store.mutate(() -> delegate.confirmFriendship(requesterId, receiverId),
+                new JournalEntry.FriendshipConfirmed(requesterId, receiverId));
+    }
+
+    @Override
+    public boolean isFriendshipExists(long requesterId, long receiverId) {
+        return delegate.isFriendshipExists(requesterId, receiverId);
+    }
+}
@@ -0,0 +1,281 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.yandex.practicum.filmorate.exception.RepositoryException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+final class MutationJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MutationJournal.class);
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private final int maxBatch;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+    private final Thread writer;
+    private FileChannel channel;
+    private long committed;
+    private volatile boolean closed;
+    private volatile Exception failure;
+
+    MutationJournal(Path directory, long segment, boolean fsync, int maxBatch, MeterRegistry registry)
+            throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.maxBatch = maxBatch;
+        this.batchSizes = DistributionSummary.builder("filmorate.journal.batch")
+                .description("Mutations made durable by one journal write")
+                .register(registry);
+        this.commitTimer = Timer.builder("filmorate.journal.commit")
+                .description("Time to write and force one journal batch")
+                .register(registry);
+        this.channel = open(segment);
+        this.committed = channel.size();
+        this.writer = Thread.ofPlatform().name("journal-writer").daemon().start(this::run);
+    }
+
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(SEGMENT_PREFIX + "%016d".formatted(segment) + SEGMENT_SUFFIX);
+    }
+
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static long replay(Path segment, boolean tail, Consumer<JournalEntry> consumer) throws IOException {
+        long entries = 0;
+        long position = 0;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return entries;
+                }
+                boolean valid = length > 0 && length <= JournalCodec.MAX_PAYLOAD_BYTES;
+                if (valid) {
+                    try {
+                        int checksum = in.readInt();
+                        byte[] payload = new byte[length];
+                        in.readFully(payload);
+                        valid = checksum == JournalCodec.checksum(payload, 0, length);
+                        if (valid) {
+                            consumer.accept(JournalCodec.decode(payload, length));
+                            entries++;
+                            position += JournalCodec.FRAME_HEADER_BYTES + length;
+                            continue;
+                        }
+                    } catch (EOFException e) {
+                        valid = false;
+                    }
+                }
+                if (!tail) {
+                    throw new RepositoryException("Journal segment " + segment + " is corrupt at offset " + position);
+                }
+                logger.warn("Discarding torn journal tail of {} at offset {}", segment, position);
+                channel.truncate(position);
+                channel.force(true);
+                return entries;
+            }
+        }
+    }
+
+    CompletableFuture<Void> append(List<JournalEntry> entries) {
+        if (failure != null) {
+            return CompletableFuture.failedFuture(failed());
+        }
+        ByteBuffer[] frames = new ByteBuffer[entries.size()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = JournalCodec.frame(entries.get(i));
+        }
+        return enqueue(new Request(frames, -1));
+    }
+
+    CompletableFuture<Void> rotate(long nextSegment) {
+        if (failure != null) {
+            return CompletableFuture.failedFuture(failed());
+        }
+        return enqueue(new Request(null, nextSegment));
+    }
+
+    boolean isFailed() {
+        return failure != null;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        CompletableFuture<Void> stopped = enqueue(new Request(null, -1));
+        closed = true;
+        try {
+            stopped.join();
+        } catch (CompletionException e) {
+            logger.warn("Failed to close journal segment cleanly", e.getCause());
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Request request) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Journal is closed"));
+        }
+        queue.add(request);
+        return request.done();
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        List<Request> pending = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            for (Request request : batch) {
+                boolean stop = request.frames() == null && request.nextSegment() < 0;
+                if (failure != null && !stop) {
+                    request.done().completeExceptionally(failed());
+                    continue;
+                }
+                if (request.frames() != null) {
+                    pending.add(request);
+                    continue;
+                }
+                commit(pending);
+                if (stop) {
+                    closeChannel(request);
+                    rejectRemaining(batch);
+                    return;
+                }
+                switchSegment(request);
+            }
+            commit(pending);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Request> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            List<ByteBuffer> frames = new ArrayList<>();
+            for (Request request : pending) {
+                frames.addAll(List.of(request.frames()));
+            }
+            ByteBuffer[] buffers = frames.toArray(ByteBuffer[]::new);
+            long remaining = frames.stream().mapToLong(ByteBuffer::remaining).sum();
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            committed = channel.size();
+            pending.forEach(request -> request.done().complete(null));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write {} journal records, rejecting further appends", pending.size(), e);
+            failure = e;
+            discardTornWrite(e);
+            pending.forEach(request -> request.done().completeExceptionally(failed()));
+        } finally {
+            commitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            batchSizes.record(pending.size());
+            pending.clear();
+        }
+    }
+
+    private void discardTornWrite(Exception cause) {
+        try {
+            channel.truncate(committed);
+            channel.force(true);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+            logger.error("Failed to truncate journal back to offset {}", committed, e);
+        }
+    }
+
+    private RepositoryException failed() {
+        return new RepositoryException("Journal is unavailable after a failed write", failure);
+    }
+
+    private void switchSegment(Request request) {
+        try {
+            channel.force(true);
+            channel.close();
+            channel = open(request.nextSegment());
+            committed = channel.size();
+            request.done().complete(null);
+        } catch (IOException e) {
+            logger.error("Failed to rotate journal to segment {}", request.nextSegment(), e);
+            request.done().completeExceptionally(e);
+        }
+    }
+
+    private void closeChannel(Request request) {
+        try {
+            channel.force(true);
+            channel.close();
+            request.done().complete(null);
+        } catch (IOException e) {
+            request.done().completeExceptionally(e);
+        }
+    }
+
+    private void rejectRemaining(List<Request> batch) {
+        queue.drainTo(batch);
+        IllegalStateException closedError = new IllegalStateException("Journal is closed");
+        batch.forEach(request -> request.done().completeExceptionally(closedError));
+    }
+
+    private FileChannel open(long segment) throws IOException {
+        return FileChannel.open(segmentPath(directory, segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private record Request(ByteBuffer[] frames, long nextSegment, CompletableFuture<Void> done) {
+        Request(ByteBuffer[] frames, long nextSegment) {
+            this(frames, nextSegment, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class SnapshotFiles {
+    private static final long MAGIC = 0x464C4D534E415031L;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int MAP_CHUNK_BYTES = 16 << 20;
+
+    static Path path(Path directory, long segment) {
+        return directory.resolve(PREFIX + "%016d".formatted(segment) + SUFFIX);
+    }
+
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static long write(Path target, Consumer<Consumer<JournalEntry>> contents) throws IOException {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        long size;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedSink sink = new MappedSink(channel);
+            sink.put(ByteBuffer.allocate(Long.BYTES).putLong(MAGIC).flip());
+            contents.accept(entry -> sink.put(JournalCodec.frame(entry)));
+            size = sink.finish();
+            channel.truncate(size);
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return size;
+    }
+
+    static long read(Path source, Consumer<JournalEntry> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + source + " exceeds the 2 GiB mapping limit");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < Long.BYTES || buffer.getLong() != MAGIC) {
+                throw new IOException("File " + source + " is not a snapshot");
+            }
+            long entries = 0;
+            byte[] payload = new byte[256];
+            while (buffer.hasRemaining()) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    throw new IOException("Snapshot " + source + " is truncated at offset " + buffer.position());
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                buffer.get(payload, 0, length);
+                if (checksum != JournalCodec.checksum(payload, 0, length)) {
+                    throw new IOException("Snapshot " + source + " is corrupt at offset " + buffer.position());
+                }
+                consumer.accept(JournalCodec.decode(payload, length));
+                entries++;
+            }
+            return entries;
+        }
+    }
+
+    private static final class MappedSink {
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private long base;
+
+        MappedSink(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void put(ByteBuffer frame) {
+            try {
+                if (buffer == null || buffer.remaining() < frame.remaining()) {
+                    remap(Math.max(MAP_CHUNK_BYTES, frame.remaining()));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.put(frame);
+        }
+
+        long finish() {
+            if (buffer == null) {
+                return 0;
+            }
+            buffer.force();
+            long size = base + buffer.position();
+            buffer = null;
+            return size;
+        }
+
+        private void remap(int size) throws IOException {
+            long position = 0;
+            if (buffer != null) {
+                buffer.force();
+                position = base + buffer.position();
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+            base = position;
+        }
+    }
+}
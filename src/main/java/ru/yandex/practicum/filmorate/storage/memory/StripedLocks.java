@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+final class StripedLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    StripedLocks(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T withLock(long id, Supplier<T> action) {
+        ReentrantLock lock = stripes[index(id)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void withLock(long id, Runnable action) {
+        withLock(id, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    void withLocks(long firstId, long secondId, Runnable action) {
+        int first = index(firstId);
+        int second = index(secondId);
+        if (first == second) {
+            withLock(firstId, action);
+            return;
+        }
+        ReentrantLock outer = stripes[Math.min(first, second)];
+        ReentrantLock inner = stripes[Math.max(first, second)];
+        outer.lock();
+        try {
+            inner.lock();
+            try {
+                action.run();
+            } finally {
+                inner.unlock();
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    private int index(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
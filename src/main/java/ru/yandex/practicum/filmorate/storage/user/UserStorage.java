@@ -1,18 +1,50 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import ru.yandex.practicum.filmorate.model.LongIdSet;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     List<User> getAll();
 
+    KeysetPage<User> getPage(long afterId, int limit);
+
+    void streamAll(Consumer<User> consumer);
+
     User create(User newUser);
 
     User update(User updatedUser);
 
-    void deleteById(long id);
+    Map<Long, Long> deleteById(long id);
 
     Optional<User> findById(long id);
+
+    List<User> findAllByIds(List<Long> ids);
+
+    boolean existsById(long id);
+
+    boolean isLoginExists(String login);
+
+    List<User> getFriends(long userId);
+
+    KeysetPage<User> getFriendsPage(long userId, long afterId, int limit);
+
+    List<User> getCommonFriends(long userId, long otherUserId);
+
+    KeysetPage<User> getCommonFriendsPage(long userId, long otherUserId, long afterId, int limit);
+
+    LongIdSet getFriendIds(long userId);
+
+    void sendFriendRequest(long userId, long friendId);
+
+    void cancelFriendRequest(long userId, long friendId);
+
+    void confirmFriendship(long requesterId, long receiverId);
+
+    boolean isFriendshipExists(long requesterId, long receiverId);
 }
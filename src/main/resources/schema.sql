@@ -26,9 +26,12 @@ CREATE TABLE IF NOT EXISTS films
     description  VARCHAR(200),
     release_date DATE,
     duration     INTEGER      NOT NULL CHECK (duration > 0),
-    rating_id    INTEGER      REFERENCES ratings (id) ON DELETE SET NULL
+    rating_id    INTEGER      REFERENCES ratings (id) ON DELETE SET NULL,
+    like_count   BIGINT       NOT NULL DEFAULT 0
 );
 
+CREATE INDEX IF NOT EXISTS idx_films_like_count ON films (like_count DESC, id);
+
 CREATE TABLE IF NOT EXISTS film_genres
 (
     film_id  BIGINT REFERENCES films (id) ON DELETE CASCADE,
@@ -46,7 +49,9 @@ CREATE TABLE IF NOT EXISTS friendships
 
 CREATE TABLE IF NOT EXISTS film_likes
 (
-    film_id BIGINT REFERENCES films (id) ON DELETE CASCADE,
-    user_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
-    PRIMARY KEY (film_id, user_id)
+    film_id BIGINT,
+    user_id BIGINT,
+    PRIMARY KEY (film_id, user_id),
+    CONSTRAINT fk_film_likes_film FOREIGN KEY (film_id) REFERENCES films (id) ON DELETE CASCADE,
+    CONSTRAINT fk_film_likes_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
 );
\ No newline at end of file
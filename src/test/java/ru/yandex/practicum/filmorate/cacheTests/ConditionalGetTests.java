@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.cacheTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.monitoringTests.StatementBudget.atMost;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conditional-get;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ConditionalGetTests {
+    private static final String UPDATE_FILM_JSON = "{\"id\": 1, \"name\": \"Film 1 (director's cut)\", "
+            + "\"description\": \"Extended\", \"releaseDate\": \"2000-01-01\", \"duration\": 150, \"mpa\": {\"id\": 1}}";
+    private final MockMvc mockMvc;
+
+    @Test
+    public void testUnchangedResourcesAnswerNotModifiedWithoutQueries() throws Exception {
+        for (String path : new String[]{"/films/2", "/films/popular", "/genres", "/genres/1", "/mpa", "/mpa/1",
+                "/users/2"}) {
+            String etag = etag(get(path));
+
+            mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""))
+                    .andExpect(atMost(0));
+        }
+    }
+
+    @Test
+    public void testFilmUpdateChangesFilmAndPopularTags() throws Exception {
+        String filmTag = etag(get("/films/1"));
+        String otherFilmTag = etag(get("/films/2"));
+        String popularTag = etag(get("/films/popular"));
+
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON).content(UPDATE_FILM_JSON))
+                .andExpect(status().isOk());
+
+        assertThat(etag(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, filmTag))).isNotEqualTo(filmTag);
+        assertThat(etag(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, popularTag)))
+                .isNotEqualTo(popularTag);
+        mockMvc.perform(get("/films/2").header(HttpHeaders.IF_NONE_MATCH, otherFilmTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testLikesChangePopularTagOnly() throws Exception {
+        String filmTag = etag(get("/films/2"));
+        String popularTag = etag(get("/films/popular").param("count", "5"));
+
+        mockMvc.perform(put("/films/2/like/3")).andExpect(status().isOk());
+
+        assertThat(etag(get("/films/popular").param("count", "5"))).isNotEqualTo(popularTag);
+        mockMvc.perform(get("/films/2").header(HttpHeaders.IF_NONE_MATCH, filmTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testFriendRequestChangesRequesterTag() throws Exception {
+        String requesterTag = etag(get("/users/3"));
+        String receiverTag = etag(get("/users/1"));
+
+        mockMvc.perform(put("/users/3/friends/1")).andExpect(status().isOk());
+
+        assertThat(etag(get("/users/3"))).isNotEqualTo(requesterTag);
+        mockMvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, receiverTag))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        return etag;
+    }
+}
@@ -0,0 +1,144 @@
+package ru.yandex.practicum.filmorate.cacheTests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.cache.FilmCache;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
+import ru.yandex.practicum.filmorate.dao.RatingRepository;
+import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.dao.mappers.RatingRowMapper;
+import ru.yandex.practicum.filmorate.dto.film.FilmDto;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GenreRepository.class, GenreRowMapper.class, RatingRepository.class, RatingRowMapper.class,
+        QueryMetrics.class})
+@Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class FilmCacheTests {
+    private final GenreRepository genreRepository;
+    private final RatingRepository ratingRepository;
+    private final ObjectProvider<MeterRegistry> registry;
+    private final AtomicInteger loads = new AtomicInteger();
+    private FilmCache filmCache;
+
+    @BeforeEach
+    public void setUp() {
+        filmCache = new FilmCache(genreRepository, ratingRepository, registry, 1 << 20);
+        filmCache.registerRefreshListeners();
+    }
+
+    @Test
+    public void testRepeatedReadsAreServedFromCache() {
+        filmCache.get(1, this::load);
+        FilmDto cached = filmCache.get(1, this::load);
+
+        assertThat(cached.getName()).isEqualTo("Film 1");
+        assertThat(loads).hasValue(1);
+        assertThat(filmCache.stats().hitCount()).isEqualTo(1);
+        assertThat(filmCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMissingFilmIsNotCached() {
+        assertThatThrownBy(() -> filmCache.get(404, id -> {
+            throw new NotFoundException("Film with id " + id + " not found");
+        })).isInstanceOf(NotFoundException.class);
+
+        assertThat(filmCache.get(404, this::load).getId()).isEqualTo(404);
+    }
+
+    @Test
+    public void testInvalidateReloadsSingleFilm() {
+        filmCache.get(1, this::load);
+        filmCache.get(2, this::load);
+
+        filmCache.invalidate(1);
+        filmCache.get(1, this::load);
+        filmCache.get(2, this::load);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    public void testReferenceRefreshClearsCache() {
+        filmCache.get(1, this::load);
+        filmCache.get(2, this::load);
+
+        genreRepository.refresh();
+        filmCache.get(1, this::load);
+        ratingRepository.refresh();
+        filmCache.get(1, this::load);
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    public void testGetAllLoadsOnlyMissingFilmsAndKeepsOrder() {
+        filmCache.get(2, this::load);
+        List<List<Long>> requested = new ArrayList<>();
+
+        List<FilmDto> films = filmCache.getAll(List.of(3L, 2L, 1L, 99L), missing -> {
+            requested.add(missing);
+            return missing.stream().filter(id -> id != 99L).map(this::load).toList();
+        });
+
+        assertThat(films).extracting(FilmDto::getId).containsExactly(3L, 2L, 1L);
+        assertThat(requested).hasSize(1);
+        assertThat(requested.get(0)).containsExactlyInAnyOrder(3L, 1L, 99L);
+    }
+
+    @Test
+    public void testUpdateDuringBulkLoadIsNotOverwritten() {
+        List<FilmDto> films = filmCache.getAll(List.of(1L, 2L), missing -> {
+            List<FilmDto> stale = missing.stream().map(this::load).toList();
+            CompletableFuture.runAsync(() -> filmCache.invalidate(1L)).join();
+            return stale;
+        });
+
+        assertThat(films).extracting(FilmDto::getId).containsExactly(1L, 2L);
+        assertThat(filmCache.get(1, id -> {
+            FilmDto updated = load(id);
+            updated.setName("Updated");
+            return updated;
+        }).getName()).isEqualTo("Updated");
+    }
+
+    @Test
+    public void testWeightBoundEvictsEntries() {
+        FilmCache small = new FilmCache(genreRepository, ratingRepository, registry, 10_000);
+        for (long id = 1; id <= 200; id++) {
+            small.get(id, this::load);
+        }
+        small.cleanUp();
+
+        assertThat(small.estimatedSize()).isLessThan(200);
+        assertThat(small.stats().evictionCount()).isPositive();
+    }
+
+    private FilmDto load(long id) {
+        loads.incrementAndGet();
+        return new FilmDto(id, "Film " + id, "Description of film " + id, LocalDate.of(2000, 1, 1), 120,
+                new LinkedHashSet<>(), null);
+    }
+}
@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.cacheTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
+import ru.yandex.practicum.filmorate.dao.mappers.FilmRowMapper;
+import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.pagination.PageLimits;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PopularFilmsIndex.class, FilmDbStorage.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        QueryMetrics.class})
+@Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class PopularFilmsIndexTests {
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final FilmDbStorage filmStorage;
+
+    @BeforeEach
+    public void setUp() {
+        popularFilmsIndex.reload();
+    }
+
+    @Test
+    public void testReloadSeedsFromStoredLikeCounts() {
+        filmStorage.addLike(2L, 1L);
+        filmStorage.addLike(2L, 3L);
+        filmStorage.addLike(1L, 3L);
+
+        popularFilmsIndex.reload();
+
+        assertThat(popularFilmsIndex.top(10)).containsExactly(2L, 1L);
+        assertThat(popularFilmsIndex.top(1)).containsExactly(2L);
+    }
+
+    @Test
+    public void testTiesAreOrderedById() {
+        assertThat(popularFilmsIndex.top(10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void testIncrementAndDecrementReorderFilms() {
+        popularFilmsIndex.increment(2L);
+        assertThat(popularFilmsIndex.top(2)).containsExactly(2L, 1L);
+
+        popularFilmsIndex.increment(1L);
+        popularFilmsIndex.increment(1L);
+        assertThat(popularFilmsIndex.top(2)).containsExactly(1L, 2L);
+
+        popularFilmsIndex.decrement(1L);
+        popularFilmsIndex.decrement(1L);
+        popularFilmsIndex.decrement(1L);
+        assertThat(popularFilmsIndex.top(2)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void testPutAndRemoveFilm() {
+        popularFilmsIndex.put(42L, 5);
+        assertThat(popularFilmsIndex.top(1)).containsExactly(42L);
+
+        popularFilmsIndex.remove(42L);
+        assertThat(popularFilmsIndex.top(10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void testFilmsOutsideTopCanEnterIt() {
+        for (long id = 100; id < 120; id++) {
+            popularFilmsIndex.put(id, id);
+        }
+        assertThat(popularFilmsIndex.top(3)).containsExactly(119L, 118L, 117L);
+
+        popularFilmsIndex.put(2L, 200);
+        popularFilmsIndex.put(105L, 150);
+        assertThat(popularFilmsIndex.top(3)).containsExactly(2L, 105L, 119L);
+
+        popularFilmsIndex.put(2L, 0);
+        assertThat(popularFilmsIndex.top(3)).containsExactly(105L, 119L, 118L);
+    }
+
+    @Test
+    public void testTopIsCappedAtMaxPageSize() {
+        for (long id = 100; id < 100 + PageLimits.MAX_PAGE_SIZE + 10; id++) {
+            popularFilmsIndex.put(id, 1);
+        }
+
+        assertThat(popularFilmsIndex.top(Integer.MAX_VALUE)).hasSize(PageLimits.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    public void testTopStaysCompleteDuringConcurrentUpdates() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    popularFilmsIndex.increment(i % 2 + 1L);
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                while (!writer.isDone()) {
+                    assertThat(popularFilmsIndex.top(2)).containsExactlyInAnyOrder(1L, 2L);
+                }
+            });
+            writer.get();
+            reader.get();
+        }
+    }
+
+    @Test
+    public void testFindAllByIdsKeepsRequestedOrder() {
+        assertThat(filmStorage.findAllByIds(popularFilmsIndex.top(10)))
+                .extracting(Film::getId)
+                .containsExactly(1L, 2L);
+        assertThat(filmStorage.findAllByIds(List.of(2L, 99L, 1L)))
+                .extracting(Film::getId)
+                .containsExactly(2L, 1L);
+    }
+}
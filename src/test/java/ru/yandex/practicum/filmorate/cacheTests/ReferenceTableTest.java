@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.cacheTests;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.ReferenceTable;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReferenceTableTest {
+
+    @DisplayName("Should find values by id and keep load order")
+    @Test
+    public void shouldFindValuesById() {
+        Genre comedy = new Genre(1L, "Комедия");
+        Genre thriller = new Genre(4L, "Триллер");
+
+        ReferenceTable<Genre> table = ReferenceTable.of(List.of(comedy, thriller), Genre::getId);
+
+        assertThat(table.get(1)).contains(comedy);
+        assertThat(table.get(4)).contains(thriller);
+        assertThat(table.values()).containsExactly(comedy, thriller);
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @DisplayName("Should return empty for unknown, negative and out of range ids")
+    @Test
+    public void shouldReturnEmptyForUnknownIds() {
+        ReferenceTable<Genre> table = ReferenceTable.of(List.of(new Genre(2L, "Драма")), Genre::getId);
+
+        assertThat(table.get(1)).isEmpty();
+        assertThat(table.get(-1)).isEmpty();
+        assertThat(table.get(100)).isEmpty();
+        assertThat(table.contains(2)).isTrue();
+        assertThat(table.contains(3)).isFalse();
+        assertThat(ReferenceTable.<Genre>empty().values()).isEmpty();
+    }
+
+    @DisplayName("Should expose an immutable list of values")
+    @Test
+    public void shouldExposeImmutableValues() {
+        ReferenceTable<Genre> table = ReferenceTable.of(List.of(new Genre(2L, "Драма")), Genre::getId);
+
+        assertThatThrownBy(() -> table.values().add(new Genre(3L, "Мультфильм")))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
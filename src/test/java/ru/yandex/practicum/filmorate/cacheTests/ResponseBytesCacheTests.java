@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.cacheTests;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:response-bytes;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ResponseBytesCacheTests {
+    private final MockMvc mockMvc;
+    private final MeterRegistry registry;
+
+    @Test
+    public void testReferenceListsAreServedAsPlainJson() throws Exception {
+        mockMvc.perform(get("/genres"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/json"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[0].name").value("Комедия"));
+        mockMvc.perform(get("/mpa"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[4].name").value("NC-17"));
+    }
+
+    @Test
+    public void testRepeatedRequestsReuseEncodedBytes() throws Exception {
+        double hitsBefore = hits();
+
+        byte[] first = body(get("/films/popular").param("count", "7")).getContentAsByteArray();
+        byte[] second = body(get("/films/popular").param("count", "7")).getContentAsByteArray();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(hits() - hitsBefore).isEqualTo(1);
+    }
+
+    @Test
+    public void testGzipVariantMatchesPlainJson() throws Exception {
+        MockHttpServletResponse plain = body(get("/films/popular"));
+        MockHttpServletResponse compressed = body(get("/films/popular").header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"));
+
+        assertThat(compressed.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(compressed.getContentLength()).isEqualTo(compressed.getContentAsByteArray().length);
+        assertThat(gunzip(compressed.getContentAsByteArray())).isEqualTo(plain.getContentAsString(StandardCharsets.UTF_8));
+        assertThat(body(get("/films/popular").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")).getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    public void testEncodingsCarryDistinctTags() throws Exception {
+        String plainTag = body(get("/films/popular")).getHeader(HttpHeaders.ETAG);
+        String gzipTag = body(get("/films/popular").header(HttpHeaders.ACCEPT_ENCODING, "gzip")).getHeader(HttpHeaders.ETAG);
+
+        assertThat(gzipTag).isNotEqualTo(plainTag).endsWith("-gz\"");
+        mockMvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/films/popular")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzipTag))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    public void testPopularBytesFollowLikes() throws Exception {
+        mockMvc.perform(get("/films/popular").param("count", "1"))
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        mockMvc.perform(put("/films/2/like/1")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/popular").param("count", "1"))
+                .andExpect(jsonPath("$[0].id").value(2));
+        mockMvc.perform(get("/films/popular").param("count", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/popular").param("count", "2000000000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletResponse body(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+    }
+
+    private double hits() {
+        return registry.find("cache.gets").tags("cache", "responses", "result", "hit").functionCounters().stream()
+                .mapToDouble(FunctionCounter::count)
+                .sum();
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.cacheTests;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.cache.SingleFlight;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+    private static final int READERS = 16;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch joined = new CountDownLatch(READERS - 1);
+
+    @DisplayName("Should share one in-flight load between concurrent readers of the same key")
+    @Test
+    public void shouldCoalesceConcurrentLoads() throws Exception {
+        SingleFlight<Long, StringBuilder> flight = new SingleFlight<>(Duration.ofSeconds(10),
+                value -> new StringBuilder(value), joined::countDown);
+
+        List<StringBuilder> results = readConcurrently(() -> flight.load(1L, () -> {
+            loads.incrementAndGet();
+            await(joined);
+            return new StringBuilder("film 1");
+        }));
+
+        assertThat(loads).hasValue(1);
+        assertThat(results).hasSize(READERS).allSatisfy(value -> assertThat(value).hasToString("film 1"));
+        assertThat(results.stream().distinct()).hasSize(READERS);
+    }
+
+    @DisplayName("Should propagate the leader's failure to every waiting reader")
+    @Test
+    public void shouldPropagateFailure() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(10), value -> value,
+                joined::countDown);
+
+        List<Throwable> failures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(READERS)) {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                futures.add(executor.submit(() -> flight.load(1L, () -> {
+                    loads.incrementAndGet();
+                    await(joined);
+                    throw new NotFoundException("Film with id 1 not found");
+                })));
+            }
+            for (Future<String> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(failures).hasSize(READERS).allSatisfy(e -> assertThat(e).isInstanceOf(NotFoundException.class));
+    }
+
+    @DisplayName("Should load independently when the shared load exceeds the wait bound")
+    @Test
+    public void shouldFallBackAfterMaxWait() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofMillis(50), value -> value, () -> {
+        });
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<String> slow = executor.submit(() -> flight.load(1L, () -> {
+                started.countDown();
+                await(release);
+                return "slow";
+            }));
+            await(started);
+
+            assertThat(flight.load(1L, () -> "fast")).isEqualTo("fast");
+            release.countDown();
+            assertThat(slow.get()).isEqualTo("slow");
+        }
+    }
+
+    @DisplayName("Should not keep results once the load completes or the key is forgotten")
+    @Test
+    public void shouldNotCacheResults() {
+        SingleFlight<Long, Integer> flight = new SingleFlight<>(Duration.ofSeconds(1), value -> value, () -> {
+        });
+
+        flight.load(1L, loads::incrementAndGet);
+        flight.load(1L, loads::incrementAndGet);
+        flight.forget(1L);
+        flight.forgetAll();
+
+        assertThat(flight.load(1L, loads::incrementAndGet)).isEqualTo(3);
+    }
+
+    private <T> List<T> readConcurrently(Callable<T> read) throws Exception {
+        List<T> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(READERS)) {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                futures.add(executor.submit(read));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Readers did not join the shared load");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.controllerTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batch-lookup;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BatchLookupTests {
+    private final MockMvc mockMvc;
+
+    @Test
+    public void testEmptyIdElementsAreRejected() throws Exception {
+        mockMvc.perform(get("/films").param("ids", "1,,2")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users").param("ids", "1,,2")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testDuplicateIdsAreReturnedOnce() throws Exception {
+        mockMvc.perform(get("/films").param("ids", "1,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+    }
+}
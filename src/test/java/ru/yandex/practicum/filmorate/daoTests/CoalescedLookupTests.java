@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.daoTests;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
+import ru.yandex.practicum.filmorate.dao.mappers.FilmRowMapper;
+import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FilmRowMapper.class, GenreRowMapper.class, QueryMetrics.class, SimpleMeterRegistry.class})
+@Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class CoalescedLookupTests {
+    private static final int READERS = 32;
+
+    private final JdbcTemplate jdbc;
+    private final FilmRowMapper filmRowMapper;
+    private final GenreRowMapper genreRowMapper;
+    private final QueryMetrics metrics;
+    private final MeterRegistry registry;
+    private FilmDbStorage filmStorage;
+    private volatile double joinsToAwait;
+
+    @BeforeEach
+    public void setUp() {
+        GenreRepository slowGenres = new GenreRepository(jdbc, genreRowMapper, metrics) {
+            @Override
+            public Map<Long, Set<Genre>> findGenresByFilmIds(Collection<Long> filmIds) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (coalesced() < joinsToAwait && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                return super.findGenresByFilmIds(filmIds);
+            }
+        };
+        slowGenres.refresh();
+        filmStorage = new FilmDbStorage(jdbc, filmRowMapper, metrics, slowGenres, 10_000);
+    }
+
+    @Test
+    public void testParallelReadersShareOneQuery() throws Exception {
+        double queriesBefore = queries();
+        double coalescedBefore = coalesced();
+        joinsToAwait = coalescedBefore + READERS - 1;
+        List<Film> films = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(READERS)) {
+            List<Future<Film>> futures = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                futures.add(executor.submit(() -> filmStorage.findById(1L).orElseThrow()));
+            }
+            for (Future<Film> future : futures) {
+                films.add(future.get(15, TimeUnit.SECONDS));
+            }
+        }
+
+        assertThat(queries() - queriesBefore).isEqualTo(1);
+        assertThat(coalesced() - coalescedBefore).isEqualTo(READERS - 1);
+        assertThat(films).extracting(Film::getName).containsOnly(films.get(0).getName());
+        assertThat(films.stream().map(System::identityHashCode).distinct()).hasSize(READERS);
+    }
+
+    @Test
+    public void testLookupAfterUpdateSeesNewState() {
+        Film film = filmStorage.findById(1L).orElseThrow();
+        film.setName("Renamed");
+        filmStorage.update(film);
+
+        assertThat(filmStorage.findById(1L).orElseThrow().getName()).isEqualTo("Renamed");
+    }
+
+    private double queries() {
+        return registry.find(QueryMetrics.QUERY_TIMER).tags("query", "film.findById").timers().stream()
+                .mapToDouble(Timer::count)
+                .sum();
+    }
+
+    private double coalesced() {
+        return registry.find(QueryMetrics.QUERY_COALESCED).tags("query", "film.findById").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}
@@ -6,32 +6,41 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
 import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
 import ru.yandex.practicum.filmorate.dao.mappers.FilmRowMapper;
 import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
 import ru.yandex.practicum.filmorate.dto.film.NewFilmRequest;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.mapper.FilmMapper;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@Import({FilmDbStorage.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class})
+@Import({FilmDbStorage.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class, QueryMetrics.class})
 @Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class FilmDbStorageTests {
     private final FilmDbStorage filmStorage;
+    private final JdbcTemplate jdbcTemplate;
 
     @Test
     public void testCreateFilm() {
@@ -121,12 +130,39 @@ public class FilmDbStorageTests {
         assertThat(films).hasSize(2); // Зависит от ваших тестовых данных
     }
 
+    @Test
+    public void testGetPage() {
+        KeysetPage<Film> firstPage = filmStorage.getPage(0, 1);
+
+        assertThat(firstPage.getItems()).extracting(Film::getId).containsExactly(1L);
+        assertThat(firstPage.getItems().get(0).getGenres()).hasSize(2);
+        assertThat(firstPage.getNextAfterId()).isEqualTo(1L);
+
+        KeysetPage<Film> lastPage = filmStorage.getPage(firstPage.getNextAfterId(), 1);
+
+        assertThat(lastPage.getItems()).extracting(Film::getId).containsExactly(2L);
+        assertThat(lastPage.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testStreamAllFilms() {
+        List<Film> streamed = new ArrayList<>();
+        filmStorage.streamAll(streamed::add);
+
+        assertThat(streamed).extracting(Film::getId).containsExactly(1L, 2L);
+        assertThat(streamed.get(1).getGenres()).containsExactly(
+                new Genre(1L, "Комедия"),
+                new Genre(3L, "Мультфильм")
+        );
+    }
+
     @Test
     public void testAddLike() {
         filmStorage.addLike(1L, 2L);
 
         Film film = filmStorage.findById(1L).orElseThrow();
-        assertThat(film.getLikes()).contains(2L);
+        assertThat(filmStorage.hasLike(1L, 2L)).isTrue();
+        assertThat(film.getLikeCount()).isEqualTo(1L);
     }
 
     @Test
@@ -135,19 +171,101 @@ public class FilmDbStorageTests {
         filmStorage.removeLike(1L, 2L);
 
         Film film = filmStorage.findById(1L).orElseThrow();
-        assertThat(film.getLikes()).doesNotContain(2L);
+        assertThat(filmStorage.hasLike(1L, 2L)).isFalse();
+        assertThat(film.getLikeCount()).isZero();
     }
 
     @Test
-    public void testGetBestByLikes() {
+    public void testGetLikeCounts() {
         filmStorage.addLike(1L, 2L);
         filmStorage.addLike(1L, 3L);
         filmStorage.addLike(2L, 2L);
 
-        List<Film> topFilms = filmStorage.getBestByLikes(1);
+        assertThat(filmStorage.getLikeCounts()).containsOnly(entry(1L, 2L), entry(2L, 1L));
+    }
+
+    @Test
+    public void testLikeCountFollowsLikes() {
+        filmStorage.addLike(1L, 2L);
+        filmStorage.addLike(1L, 3L);
+        filmStorage.removeLike(1L, 2L);
+
+        assertThatThrownBy(() -> filmStorage.removeLike(1L, 2L))
+                .isInstanceOf(ValidationException.class);
+        Film film = filmStorage.findById(1L).orElseThrow();
+        assertThat(film.getLikeCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testAddLikeTwice() {
+        filmStorage.addLike(1L, 2L);
+
+        assertThatThrownBy(() -> filmStorage.addLike(1L, 2L))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("already liked");
+        assertThat(filmStorage.findById(1L).orElseThrow().getLikeCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testLikeUnknownFilmOrUser() {
+        assertThatThrownBy(() -> filmStorage.addLike(999L, 2L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Film with id 999");
+        assertThatThrownBy(() -> filmStorage.addLike(1L, 999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("User with id 999");
+        assertThatThrownBy(() -> filmStorage.removeLike(999L, 2L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Film with id 999");
+        assertThatThrownBy(() -> filmStorage.removeLike(1L, 999L))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("User with id 999");
+    }
+
+    @Test
+    public void testRebuildLikeCounts() {
+        filmStorage.addLike(2L, 1L);
+        jdbcTemplate.update("INSERT INTO film_likes (film_id, user_id) VALUES (2, 3)");
+        jdbcTemplate.update("UPDATE films SET like_count = 7 WHERE id = 1");
+
+        int corrected = filmStorage.rebuildLikeCounts();
+
+        assertThat(corrected).isEqualTo(2);
+        assertThat(filmStorage.findById(1L).orElseThrow().getLikeCount()).isZero();
+        assertThat(filmStorage.findById(2L).orElseThrow().getLikeCount()).isEqualTo(2L);
+        assertThat(filmStorage.getLikeCounts()).containsOnly(entry(1L, 0L), entry(2L, 2L));
+    }
+
+    @Test
+    public void testGenreNamesWithSeparators() {
+        jdbcTemplate.update("INSERT INTO genres (id, name) VALUES (7, 'Sci-Fi: Space, Opera')");
+        jdbcTemplate.update("INSERT INTO film_genres (film_id, genre_id) VALUES (2, 7)");
+
+        Film film = filmStorage.findById(2L).orElseThrow();
+
+        assertThat(film.getGenres()).containsExactly(
+                new Genre(1L, "Комедия"),
+                new Genre(3L, "Мультфильм"),
+                new Genre(7L, "Sci-Fi: Space, Opera")
+        );
+        assertThat(filmStorage.getAll())
+                .filteredOn(found -> found.getId() == 2L)
+                .singleElement()
+                .satisfies(found -> assertThat(found.getGenres()).hasSize(3));
+    }
+
+    @Test
+    public void testUpdateFilmWithUnknownGenreKeepsGenres() {
+        Film film = filmStorage.findById(1L).orElseThrow();
+        film.setGenres(Set.of(new Genre(3L, null), new Genre(99L, null)));
+
+        assertThatThrownBy(() -> filmStorage.update(film))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("99");
 
-        assertThat(topFilms).hasSize(1);
-        assertThat(topFilms.get(0).getId()).isEqualTo(1L);
+        assertThat(filmStorage.findById(1L).orElseThrow().getGenres())
+                .extracting(Genre::getId)
+                .containsExactly(1L, 2L);
     }
 
     @Test
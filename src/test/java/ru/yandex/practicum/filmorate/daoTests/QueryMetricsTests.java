@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.daoTests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
+import ru.yandex.practicum.filmorate.dao.mappers.FilmRowMapper;
+import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FilmDbStorage.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class, QueryMetrics.class,
+        SimpleMeterRegistry.class})
+@Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class QueryMetricsTests {
+    private final FilmDbStorage filmStorage;
+    private final MeterRegistry registry;
+
+    @Test
+    public void testQueriesAreTimedByName() {
+        filmStorage.findById(1L);
+        filmStorage.findById(2L);
+        filmStorage.getPage(0, 10);
+
+        assertThat(registry.get(QueryMetrics.QUERY_TIMER)
+                .tags("query", "film.findById", "outcome", "success")
+                .timer()
+                .count()).isEqualTo(2);
+        assertThat(registry.get(QueryMetrics.QUERY_TIMER)
+                .tags("query", "genre.filmGenresByIds")
+                .timer()
+                .count()).isEqualTo(3);
+        assertThat(registry.get(QueryMetrics.QUERY_ROWS)
+                .tags("query", "film.page")
+                .summary()
+                .totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailedQueriesAreTaggedAsErrors() {
+        filmStorage.addLike(1L, 2L);
+
+        assertThatThrownBy(() -> filmStorage.addLike(1L, 2L)).isInstanceOf(ValidationException.class);
+        assertThat(registry.get(QueryMetrics.QUERY_TIMER)
+                .tags("query", "film.addLike", "outcome", "error")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+}
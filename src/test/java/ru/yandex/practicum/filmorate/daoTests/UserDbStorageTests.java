@@ -7,26 +7,32 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
 import ru.yandex.practicum.filmorate.dao.UserDbStorage;
 import ru.yandex.practicum.filmorate.dao.mappers.UserRowMapper;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 @JdbcTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@Import({UserDbStorage.class, UserRowMapper.class})
+@Import({UserDbStorage.class, UserRowMapper.class, QueryMetrics.class})
 @Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class UserDbStorageTests {
     private final UserDbStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
 
     @Test
     public void testCreateUser() {
@@ -55,6 +61,15 @@ class UserDbStorageTests {
                 });
     }
 
+    @Test
+    public void testFindAllByIdsPreservesOrderAndSkipsMissing() {
+        List<User> users = userStorage.findAllByIds(List.of(3L, 99L, 1L));
+
+        assertThat(users).extracting(User::getId).containsExactly(3L, 1L);
+        assertThat(users.get(1).getFriends()).containsExactly(2L, 3L);
+        assertThat(userStorage.findAllByIds(List.of())).isEmpty();
+    }
+
     @Test
     public void testUpdateUser() {
         User userToUpdate = userStorage.findById(1)
@@ -82,6 +97,16 @@ class UserDbStorageTests {
         assertThat(deletedUser).isNotPresent();
     }
 
+    @Test
+    public void testDeleteUserDecrementsLikedFilms() {
+        jdbcTemplate.update("INSERT INTO film_likes (film_id, user_id) VALUES (1, 2), (2, 2), (2, 3)");
+        jdbcTemplate.update("UPDATE films SET like_count = CASE id WHEN 1 THEN 1 ELSE 2 END");
+
+        assertThat(userStorage.deleteById(2)).containsOnly(entry(1L, 0L), entry(2L, 1L));
+        assertThat(jdbcTemplate.queryForList("SELECT like_count FROM films ORDER BY id", Long.class))
+                .containsExactly(0L, 1L);
+    }
+
     @Test
     public void testAddAndRemoveFriend() {
         userStorage.sendFriendRequest(2, 3);
@@ -125,6 +150,64 @@ class UserDbStorageTests {
                 .contains("john.doe@example.com", "jane.smith@example.com", "alice.johnson@example.com");
     }
 
+    @Test
+    public void testGetPage() {
+        KeysetPage<User> firstPage = userStorage.getPage(0, 2);
+
+        assertThat(firstPage.getItems()).extracting(User::getId).containsExactly(1L, 2L);
+        assertThat(firstPage.getItems().get(0).getFriends()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(firstPage.getNextAfterId()).isEqualTo(2L);
+
+        KeysetPage<User> lastPage = userStorage.getPage(firstPage.getNextAfterId(), 2);
+
+        assertThat(lastPage.getItems()).extracting(User::getId).containsExactly(3L);
+        assertThat(lastPage.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testStreamAllUsers() {
+        List<User> streamed = new ArrayList<>();
+        userStorage.streamAll(streamed::add);
+
+        assertThat(streamed).extracting(User::getId).containsExactly(1L, 2L, 3L);
+        assertThat(streamed.get(0).getFriends()).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(streamed.get(1).getFriends()).isEmpty();
+    }
+
+    @Test
+    public void testGetFriends() {
+        List<User> friends = userStorage.getFriends(1);
+
+        assertThat(friends).extracting(User::getId).containsExactly(2L, 3L);
+        assertThat(friends).extracting(User::getEmail)
+                .containsExactly("jane.smith@example.com", "alice.johnson@example.com");
+
+        KeysetPage<User> page = userStorage.getFriendsPage(1, 0, 1);
+        assertThat(page.getItems()).extracting(User::getId).containsExactly(2L);
+        assertThat(userStorage.getFriendsPage(1, page.getNextAfterId(), 1).getItems())
+                .extracting(User::getId)
+                .containsExactly(3L);
+    }
+
+    @Test
+    public void testGetCommonFriends() {
+        userStorage.sendFriendRequest(2, 3);
+        userStorage.sendFriendRequest(3, 1);
+        userStorage.sendFriendRequest(2, 1);
+
+        List<User> commonFriends = userStorage.getCommonFriends(1, 2);
+
+        assertThat(commonFriends).extracting(User::getId).containsExactly(3L);
+        assertThat(commonFriends.get(0).getFriends()).containsExactly(1L);
+        assertThat(userStorage.getCommonFriends(1, 3)).isEmpty();
+    }
+
+    @Test
+    public void testExistsById() {
+        assertThat(userStorage.existsById(1)).isTrue();
+        assertThat(userStorage.existsById(999)).isFalse();
+    }
+
     @Test
     public void testFindNonExistentUser() {
         Optional<User> user = userStorage.findById(999);
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.datagenTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
+import ru.yandex.practicum.filmorate.dao.mappers.FilmRowMapper;
+import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.datagen.DatagenProperties;
+import ru.yandex.practicum.filmorate.datagen.DatasetGenerator;
+import ru.yandex.practicum.filmorate.datagen.DatasetGenerator.DatasetSummary;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PopularFilmsIndex.class, FilmDbStorage.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        QueryMetrics.class})
+@Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class DatasetGeneratorTests {
+    private static final String LIKE_COUNTS_QUERY = "SELECT like_count FROM films WHERE id > 2 ORDER BY id";
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final FilmDbStorage filmStorage;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final ApplicationContext context;
+
+    @Test
+    public void testGeneratesRequestedVolumesAfterExistingRows() {
+        DatasetSummary summary = generator(7L).generate();
+
+        assertThat(summary.users()).isEqualTo(200);
+        assertThat(summary.films()).isEqualTo(50);
+        assertThat(summary.likes()).isPositive();
+        assertThat(summary.friendships()).isPositive();
+        assertThat(count("users")).isEqualTo(203);
+        assertThat(count("films")).isEqualTo(52);
+        assertThat(count("film_likes")).isEqualTo(summary.likes());
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(like_count) FROM films", Long.class))
+                .isEqualTo(summary.likes());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM film_genres WHERE film_id > 2", Long.class))
+                .isEqualTo(summary.filmGenres());
+        assertThat(popularFilmsIndex.top(1)).containsExactly(3L);
+
+        jdbcTemplate.update("INSERT INTO users (email, login) VALUES ('next@example.com', 'next')");
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM users WHERE login = 'next'", Long.class))
+                .isEqualTo(204L);
+    }
+
+    @Test
+    public void testSameSeedProducesSameDataset() {
+        generator(7L).generate();
+        List<Long> firstRun = jdbcTemplate.queryForList(LIKE_COUNTS_QUERY, Long.class);
+
+        jdbcTemplate.update("DELETE FROM films WHERE id > 2");
+        jdbcTemplate.update("DELETE FROM users WHERE id > 3");
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH 4");
+        jdbcTemplate.execute("ALTER TABLE films ALTER COLUMN id RESTART WITH 3");
+        generator(7L).generate();
+
+        assertThat(jdbcTemplate.queryForList(LIKE_COUNTS_QUERY, Long.class)).isEqualTo(firstRun);
+    }
+
+    private DatasetGenerator generator(long seed) {
+        DatagenProperties properties = new DatagenProperties(200, 50, 2_000, 5, 0.3, 3, 1.1, seed, 64, false);
+        return new DatasetGenerator(jdbcTemplate, transactionManager, filmStorage, popularFilmsIndex, context,
+                properties);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.loadTests;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadTestReport {
+    private static final String HEADER =
+            "operation,requests,throughput_rps,p50_us,p99_us,p999_us,max_us,errors_4xx,errors_5xx";
+    private static final int THROUGHPUT = 2;
+    private static final int P99 = 4;
+    private static final int P999 = 5;
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    public void record(String operation, long elapsedNanos, int status) {
+        OperationStats stats = operations.computeIfAbsent(operation, name -> new OperationStats());
+        stats.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (status >= 500 || status < 0) {
+            stats.serverErrors.increment();
+        } else if (status >= 400) {
+            stats.clientErrors.increment();
+        }
+    }
+
+    public long serverErrors() {
+        return operations.values().stream().mapToLong(stats -> stats.serverErrors.sum()).sum();
+    }
+
+    public long requests() {
+        return operations.values().stream().mapToLong(stats -> stats.latency.getTotalCount()).sum();
+    }
+
+    public List<String> toCsv(Duration elapsed) {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        Histogram total = new Histogram(3);
+        long clientErrors = 0;
+        long serverErrors = 0;
+        for (Map.Entry<String, OperationStats> entry : new TreeMap<>(operations).entrySet()) {
+            OperationStats stats = entry.getValue();
+            total.add(stats.latency);
+            clientErrors += stats.clientErrors.sum();
+            serverErrors += stats.serverErrors.sum();
+            lines.add(line(entry.getKey(), stats.latency, elapsed, stats.clientErrors.sum(), stats.serverErrors.sum()));
+        }
+        lines.add(line("total", total, elapsed, clientErrors, serverErrors));
+        return lines;
+    }
+
+    public void write(Path path, Duration elapsed) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, toCsv(elapsed));
+    }
+
+    public List<String> compareWith(Path baseline, Duration elapsed, double tolerance) throws IOException {
+        Map<String, double[]> previous = parse(Files.readAllLines(baseline));
+        Map<String, double[]> current = parse(toCsv(elapsed));
+        List<String> regressions = new ArrayList<>();
+        current.forEach((operation, values) -> {
+            double[] before = previous.get(operation);
+            if (before == null) {
+                return;
+            }
+            if (values[THROUGHPUT] < before[THROUGHPUT] * (1 - tolerance)) {
+                regressions.add(regression(operation, "throughput_rps", before[THROUGHPUT], values[THROUGHPUT]));
+            }
+            if (values[P99] > before[P99] * (1 + tolerance)) {
+                regressions.add(regression(operation, "p99_us", before[P99], values[P99]));
+            }
+            if (values[P999] > before[P999] * (1 + tolerance)) {
+                regressions.add(regression(operation, "p999_us", before[P999], values[P999]));
+            }
+        });
+        return regressions;
+    }
+
+    private static String line(String operation, Histogram latency, Duration elapsed, long clientErrors,
+                               long serverErrors) {
+        double throughput = latency.getTotalCount() / Math.max(elapsed.toMillis() / 1000.0, 0.001);
+        return String.format(Locale.ROOT, "%s,%d,%.1f,%d,%d,%d,%d,%d,%d",
+                operation,
+                latency.getTotalCount(),
+                throughput,
+                latency.getValueAtPercentile(50),
+                latency.getValueAtPercentile(99),
+                latency.getValueAtPercentile(99.9),
+                latency.getMaxValue(),
+                clientErrors,
+                serverErrors);
+    }
+
+    private static Map<String, double[]> parse(List<String> lines) {
+        Map<String, double[]> rows = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            double[] values = new double[columns.length];
+            for (int i = 1; i < columns.length; i++) {
+                values[i] = Double.parseDouble(columns[i]);
+            }
+            rows.put(columns[0], values);
+        }
+        return rows;
+    }
+
+    private static String regression(String operation, String metric, double before, double after) {
+        return String.format(Locale.ROOT, "%s %s: %.1f -> %.1f", operation, metric, before, after);
+    }
+
+    private static class OperationStats {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+    }
+}
@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.loadTests;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.datagen.ZipfDistribution;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("load")
+@ActiveProfiles("datagen")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "filmorate.datagen.users=${load.users:20000}",
+        "filmorate.datagen.films=${load.films:2000}",
+        "filmorate.datagen.likes=${load.likes:200000}",
+        "filmorate.datagen.friends-per-user=10",
+        "logging.level.root=WARN",
+        "logging.level.ru.yandex.practicum.filmorate.exception=OFF"
+})
+class MixedWorkloadLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(MixedWorkloadLoadTest.class);
+    private static final Path REPORT = Path.of("target", "load-report", "mixed-workload.csv");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mixedWorkload() throws Exception {
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup.seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration.seconds", 30));
+        int concurrency = Integer.getInteger("load.concurrency", 64);
+        Workload workload = new Workload(maxId("films"), maxId("users"));
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            run(client, workload, concurrency, warmup, new LoadTestReport());
+            LoadTestReport report = new LoadTestReport();
+            run(client, workload, concurrency, duration, report);
+
+            List<String> csv = report.toCsv(duration);
+            logger.warn("Load test with {} virtual-thread clients for {}:\n{}", concurrency, duration,
+                    String.join("\n", csv));
+            report.write(REPORT, duration);
+
+            assertThat(report.requests()).isPositive();
+            assertThat(report.serverErrors()).isZero();
+            String baseline = System.getProperty("load.baseline");
+            if (baseline != null && Files.exists(Path.of(baseline))) {
+                double tolerance = Double.parseDouble(System.getProperty("load.tolerance", "0.2"));
+                assertThat(report.compareWith(Path.of(baseline), duration, tolerance)).isEmpty();
+            }
+        }
+    }
+
+    private void run(HttpClient client, Workload workload, int concurrency, Duration duration,
+                     LoadTestReport report) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                long seed = i;
+                clients.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    while (System.nanoTime() < deadline) {
+                        workload.next(random).execute(client, report);
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private class Workload {
+        private final ZipfDistribution films;
+        private final ZipfDistribution users;
+
+        Workload(long filmCount, long userCount) {
+            this.films = new ZipfDistribution((int) filmCount, 1.1);
+            this.users = new ZipfDistribution((int) userCount, 1.1);
+        }
+
+        Call next(SplittableRandom random) {
+            long film = films.sample(random) + 1;
+            long user = random.nextInt(users.size()) + 1;
+            long other = users.sample(random) + 1;
+            int roll = random.nextInt(100);
+            if (roll < 30) {
+                return new Call("film_by_id", "GET", url("/films/" + film), null);
+            } else if (roll < 45) {
+                return new Call("popular", "GET", url("/films/popular?count=10"), null);
+            } else if (roll < 60) {
+                return new Call("friends", "GET", url("/users/" + user + "/friends"), null);
+            } else if (roll < 70) {
+                return new Call("common_friends", "GET", url("/users/" + user + "/friends/common/" + other), null);
+            } else if (roll < 90) {
+                String path = url("/films/" + film + "/like/" + user);
+                return new Call("like", "PUT", path, new Call("unlike", "DELETE", path, null));
+            } else {
+                return new Call("friend_request", "PUT", url("/users/" + user + "/friends/" + other), null);
+            }
+        }
+    }
+
+    private record Call(String operation, String method, String url, Call onRejected) {
+        void execute(HttpClient client, LoadTestReport report) throws InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .build();
+            long started = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            }
+            report.record(operation, System.nanoTime() - started, status);
+            if (status == 400 && onRejected != null) {
+                onRejected.execute(client, report);
+            }
+        }
+    }
+}
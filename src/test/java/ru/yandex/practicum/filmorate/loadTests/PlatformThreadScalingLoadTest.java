@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.loadTests;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:scaling-platform;DB_CLOSE_DELAY=-1",
+        "spring.threads.virtual.enabled=false"
+})
+class PlatformThreadScalingLoadTest extends ThreadScalingLoadTest {
+
+    @Override
+    protected String threadModel() {
+        return "platform";
+    }
+}
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.loadTests;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("load")
+@ActiveProfiles("datagen")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "filmorate.datagen.users=${load.users:20000}",
+        "filmorate.datagen.films=${load.films:2000}",
+        "filmorate.datagen.likes=${load.likes:200000}",
+        "filmorate.datagen.friends-per-user=10",
+        "logging.level.root=WARN",
+        "logging.level.ru.yandex.practicum.filmorate.monitoring=WARN"
+})
+abstract class ThreadScalingLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(ThreadScalingLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    protected abstract String threadModel();
+
+    @Test
+    void concurrencyScaling() throws Exception {
+        Duration duration = Duration.ofSeconds(Long.getLong("load.scaling.seconds", 10));
+        int[] levels = Arrays.stream(System.getProperty("load.scaling.levels", "16,64,256,1024").split(","))
+                .mapToInt(level -> Integer.parseInt(level.strip()))
+                .toArray();
+        long films = maxId("films");
+        long users = maxId("users");
+
+        LoadTestReport report = new LoadTestReport();
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            run(client, films, users, levels[0], duration, new LoadTestReport(), "");
+            for (int concurrency : levels) {
+                run(client, films, users, concurrency, duration, report, "@" + concurrency);
+            }
+        }
+
+        List<String> csv = report.toCsv(duration);
+        logger.warn("Concurrency scaling with {} threads, {} per level:\n{}", threadModel(), duration,
+                String.join("\n", csv));
+        report.write(Path.of("target", "load-report", "scaling-" + threadModel() + ".csv"), duration);
+        assertThat(report.requests()).isPositive();
+        assertThat(report.serverErrors()).isZero();
+    }
+
+    private void run(HttpClient client, long films, long users, int concurrency, Duration duration,
+                     LoadTestReport report, String suffix) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Runnable> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            clients.add(() -> {
+                while (System.nanoTime() < deadline) {
+                    if (random.nextBoolean()) {
+                        call(client, report, "film_by_id" + suffix, "/films/" + (random.nextLong(films) + 1));
+                    } else {
+                        call(client, report, "friends" + suffix,
+                                "/users/" + (random.nextLong(users) + 1) + "/friends");
+                    }
+                }
+            });
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            clients.forEach(executor::submit);
+        }
+    }
+
+    private void call(HttpClient client, LoadTestReport report, String operation, String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        long started = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        report.record(operation, System.nanoTime() - started, status);
+    }
+
+    private long maxId(String table) {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+    }
+}
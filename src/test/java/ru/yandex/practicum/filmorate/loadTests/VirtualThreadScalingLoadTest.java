@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.loadTests;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+@ActiveProfiles("vthreads")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:scaling-virtual;DB_CLOSE_DELAY=-1")
+class VirtualThreadScalingLoadTest extends ThreadScalingLoadTest {
+
+    @Override
+    protected String threadModel() {
+        return "virtual";
+    }
+}
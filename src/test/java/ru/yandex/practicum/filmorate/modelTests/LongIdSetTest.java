@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.modelTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import ru.yandex.practicum.filmorate.dto.user.UserDto;
+import ru.yandex.practicum.filmorate.model.LongIdSet;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIdSetTest {
+    private static final int FOOTPRINT_ENTRIES = 10_000;
+
+    @DisplayName("Should sort and deduplicate ids")
+    @Test
+    public void shouldSortAndDeduplicateIds() {
+        LongIdSet ids = LongIdSet.of(5, 1, 3, 5, 1);
+
+        assertThat(ids).containsExactly(1L, 3L, 5L);
+        assertThat(ids.size()).isEqualTo(3);
+        assertThat(ids.contains(3L)).isTrue();
+        assertThat(ids.contains(4L)).isFalse();
+        assertThat(ids.toLongArray()).containsExactly(1, 3, 5);
+    }
+
+    @DisplayName("Should build the same set as copyOf and compare equal to other sets")
+    @Test
+    public void shouldBeEqualToEquivalentSets() {
+        LongIdSet.Builder builder = LongIdSet.builder();
+        for (long id = 20; id > 0; id--) {
+            builder.add(id);
+        }
+        Set<Long> hashSet = new HashSet<>();
+        for (long id = 1; id <= 20; id++) {
+            hashSet.add(id);
+        }
+
+        LongIdSet built = builder.build();
+
+        assertThat(built).isEqualTo(LongIdSet.copyOf(hashSet));
+        assertThat(built).isEqualTo(hashSet);
+        assertThat(built.hashCode()).isEqualTo(hashSet.hashCode());
+        assertThat(LongIdSet.copyOf(List.of())).isSameAs(LongIdSet.empty());
+    }
+
+    @DisplayName("Should serialize as a JSON array and read it back")
+    @Test
+    public void shouldRoundTripThroughJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        UserDto dto = new UserDto(1, "John", "john@example.com", "john", LocalDate.of(1990, 1, 1),
+                LongIdSet.of(3, 2));
+
+        String json = objectMapper.writeValueAsString(dto);
+        UserDto parsed = objectMapper.readValue(json, UserDto.class);
+
+        assertThat(json).contains("\"friends\":[2,3]");
+        assertThat(parsed.getFriends()).isEqualTo(LongIdSet.of(2, 3));
+    }
+
+    @DisplayName("Should use far less memory per entry than HashSet<Long>")
+    @Test
+    public void shouldHaveSmallerFootprintThanHashSet() {
+        Set<Long> hashSet = new HashSet<>();
+        LongIdSet.Builder builder = LongIdSet.builder();
+        for (long id = 1_000_000; id < 1_000_000 + FOOTPRINT_ENTRIES; id++) {
+            hashSet.add(id);
+            builder.add(id);
+        }
+        LongIdSet longIdSet = builder.build();
+
+        double hashSetBytesPerEntry = (double) GraphLayout.parseInstance(hashSet).totalSize() / FOOTPRINT_ENTRIES;
+        double longIdSetBytesPerEntry = (double) GraphLayout.parseInstance(longIdSet).totalSize() / FOOTPRINT_ENTRIES;
+        assertThat(longIdSetBytesPerEntry).as("LongIdSet bytes per entry").isLessThan(9.0);
+        assertThat(hashSetBytesPerEntry)
+                .as("HashSet<Long> bytes per entry vs LongIdSet at %.1f", longIdSetBytesPerEntry)
+                .isGreaterThan(longIdSetBytesPerEntry * 4);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.monitoringTests;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.test.web.servlet.ResultMatcher;
+import ru.yandex.practicum.filmorate.monitoring.SqlStatementStatsFilter;
+import ru.yandex.practicum.filmorate.monitoring.StatementStats;
+import ru.yandex.practicum.filmorate.monitoring.StatementTracker;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class StatementBudget {
+
+    public static ResultMatcher atMost(int maxStatements) {
+        return result -> {
+            String header = result.getResponse().getHeader(SqlStatementStatsFilter.COUNT_HEADER);
+            assertThat(header)
+                    .as("%s header on %s %s", SqlStatementStatsFilter.COUNT_HEADER,
+                            result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                    .isNotNull();
+            assertThat(Integer.parseInt(header))
+                    .as("SQL statements for %s %s", result.getRequest().getMethod(),
+                            result.getRequest().getRequestURI())
+                    .isLessThanOrEqualTo(maxStatements);
+        };
+    }
+
+    public static <T> T assertAtMost(int maxStatements, Supplier<T> action) {
+        StatementTracker.Tracked<T> tracked = StatementTracker.track(action);
+        assertStats(maxStatements, tracked.stats());
+        return tracked.result();
+    }
+
+    public static void assertAtMost(int maxStatements, Runnable action) {
+        assertStats(maxStatements, StatementTracker.track(action));
+    }
+
+    private static void assertStats(int maxStatements, StatementStats stats) {
+        assertThat(stats.getCount()).as("SQL statements").isLessThanOrEqualTo(maxStatements);
+        assertThat(stats.repeatedShapes(2)).as("statements repeated within one call").isEmpty();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.monitoringTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.monitoringTests.StatementBudget.assertAtMost;
+import static ru.yandex.practicum.filmorate.monitoringTests.StatementBudget.atMost;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class StatementBudgetTests {
+    private final MockMvc mockMvc;
+    private final FilmService filmService;
+    private final UserService userService;
+
+    @Test
+    public void testFilmEndpointsStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/films/1")).andExpect(status().isOk()).andExpect(atMost(2));
+        mockMvc.perform(get("/films/popular").param("count", "10")).andExpect(status().isOk()).andExpect(atMost(2));
+        mockMvc.perform(get("/films")).andExpect(status().isOk()).andExpect(atMost(2));
+    }
+
+    @Test
+    public void testUserEndpointsStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/users/1")).andExpect(status().isOk()).andExpect(atMost(2));
+        mockMvc.perform(get("/users/1/friends")).andExpect(status().isOk()).andExpect(atMost(3));
+        mockMvc.perform(get("/users/1/friends/common/2")).andExpect(status().isOk()).andExpect(atMost(1));
+    }
+
+    @Test
+    public void testBatchLookupsStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/films").param("ids", "2,99,1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(2, 1)))
+                .andExpect(jsonPath("$.missingIds").value(contains(99)))
+                .andExpect(atMost(2));
+        mockMvc.perform(get("/users").param("ids", "3,1,42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(3, 1)))
+                .andExpect(jsonPath("$.missingIds").value(contains(42)))
+                .andExpect(atMost(2));
+        mockMvc.perform(get("/users").param("ids", "")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testLikeRoundTripStaysWithinBudget() throws Exception {
+        mockMvc.perform(get("/films/2")).andExpect(status().isOk());
+        mockMvc.perform(put("/films/2/like/3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(2))
+                .andExpect(atMost(2));
+        mockMvc.perform(delete("/films/2/like/3")).andExpect(status().isNoContent()).andExpect(atMost(2));
+    }
+
+    @Test
+    public void testServiceCallsAreTrackedOutsideRequests() {
+        assertAtMost(2, () -> filmService.getBestByLikes(10));
+        assertAtMost(3, () -> userService.getUserFriends(1L));
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.monitoringTests;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.monitoring.StatementStats;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatementStatsTest {
+
+    @Test
+    public void testRepeatedShapesIgnoreLiteralsAndWhitespace() {
+        StatementStats stats = new StatementStats();
+        for (int id = 1; id <= 5; id++) {
+            stats.record("SELECT *\n  FROM films WHERE id = " + id, 1_000_000);
+        }
+        stats.record("SELECT * FROM users WHERE id IN (?, ?, ?)", 1_000_000);
+        stats.record("SELECT * FROM users WHERE id IN (?,?)", 1_000_000);
+
+        assertThat(stats.getCount()).isEqualTo(7);
+        assertThat(stats.getMillis()).isEqualTo(7.0);
+        assertThat(stats.repeatedShapes(3)).isEqualTo(Map.of("SELECT * FROM films WHERE id = ?", 5));
+        assertThat(stats.repeatedShapes(2)).containsEntry("SELECT * FROM users WHERE id IN (?...)", 2);
+    }
+}
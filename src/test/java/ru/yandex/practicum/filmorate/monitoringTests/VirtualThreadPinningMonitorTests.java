@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.monitoringTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import ru.yandex.practicum.filmorate.monitoring.VirtualThreadPinningMonitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(VirtualThreadPinningMonitor.class)
+@TestPropertySource(properties = {"spring.threads.virtual.enabled=true", "filmorate.vthreads.pinned-threshold-ms=10"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class VirtualThreadPinningMonitorTests {
+    private static final long TIMEOUT_MILLIS = 10_000;
+    private final VirtualThreadPinningMonitor monitor;
+
+    @Test
+    public void testReportsCarrierPinnedBySynchronizedBlock() throws InterruptedException {
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                sleep(50);
+            }
+        }).join();
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (monitor.pinnedCount() == 0 && System.currentTimeMillis() < deadline) {
+            sleep(100);
+        }
+        assertThat(monitor.pinnedCount()).isPositive();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
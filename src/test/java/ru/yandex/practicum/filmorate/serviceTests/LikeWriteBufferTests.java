@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.serviceTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
+import ru.yandex.practicum.filmorate.dao.mappers.FilmRowMapper;
+import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.service.LikeWriteBuffer;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PopularFilmsIndex.class, FilmDbStorage.class, FilmRowMapper.class, GenreRepository.class, GenreRowMapper.class,
+        QueryMetrics.class})
+@Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class LikeWriteBufferTests {
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final FilmDbStorage filmStorage;
+    private LikeWriteBuffer buffer;
+
+    @BeforeEach
+    public void setUp() {
+        popularFilmsIndex.reload();
+        buffer = new LikeWriteBuffer(filmStorage, popularFilmsIndex, true, 100, 3);
+    }
+
+    @Test
+    public void testFlushWritesBufferedLikes() {
+        buffer.like(1L, 2L);
+        buffer.like(1L, 3L);
+        buffer.like(2L, 3L);
+
+        assertThat(filmStorage.hasLike(1L, 2L)).isFalse();
+        buffer.flush();
+
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(filmStorage.findById(1L).orElseThrow().getLikeCount()).isEqualTo(2L);
+        assertThat(filmStorage.findById(2L).orElseThrow().getLikeCount()).isEqualTo(1L);
+        assertThat(popularFilmsIndex.top(10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void testOpposingEventsAreCoalesced() {
+        filmStorage.addLike(2L, 1L);
+
+        buffer.like(1L, 2L);
+        buffer.unlike(1L, 2L);
+        buffer.unlike(2L, 1L);
+        buffer.like(2L, 1L);
+        assertThatThrownBy(() -> buffer.like(2L, 1L)).isInstanceOf(ValidationException.class);
+
+        assertThat(buffer.pendingCount()).isEqualTo(2);
+        buffer.flush();
+
+        assertThat(filmStorage.hasLike(1L, 2L)).isFalse();
+        assertThat(filmStorage.hasLike(2L, 1L)).isTrue();
+        assertThat(filmStorage.findById(2L).orElseThrow().getLikeCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testFullBufferIsFlushedByCaller() {
+        buffer.like(1L, 1L);
+        buffer.like(1L, 2L);
+        buffer.like(1L, 3L);
+        buffer.like(2L, 1L);
+
+        assertThat(filmStorage.hasLike(1L, 3L)).isTrue();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testChangesDuringFlushSeeInFlightLikes() {
+        buffer = new LikeWriteBuffer(beforeApply(() -> {
+            assertThatThrownBy(() -> buffer.like(1L, 2L)).isInstanceOf(ValidationException.class);
+            buffer.unlike(1L, 2L);
+        }), popularFilmsIndex, true, 100, 10);
+        buffer.like(1L, 2L);
+
+        buffer.flush();
+        assertThat(filmStorage.hasLike(1L, 2L)).isTrue();
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+
+        buffer.flush();
+        assertThat(filmStorage.hasLike(1L, 2L)).isFalse();
+        assertThat(filmStorage.findById(1L).orElseThrow().getLikeCount()).isZero();
+    }
+
+    @Test
+    public void testInvalidChangesAreRejectedLikeSynchronousOnes() {
+        assertThatThrownBy(() -> buffer.like(1L, 999L)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> buffer.like(999L, 1L)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> buffer.unlike(1L, 2L)).isInstanceOf(ValidationException.class);
+        buffer.like(1L, 2L);
+        buffer.flush();
+
+        assertThatThrownBy(() -> buffer.like(1L, 2L)).isInstanceOf(ValidationException.class);
+        assertThat(buffer.pendingCount()).isZero();
+        assertThat(filmStorage.findById(1L).orElseThrow().getLikeCount()).isEqualTo(1L);
+    }
+
+    private FilmStorage beforeApply(Runnable action) {
+        AtomicBoolean done = new AtomicBoolean();
+        return (FilmStorage) Proxy.newProxyInstance(FilmStorage.class.getClassLoader(), new Class<?>[]{FilmStorage.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("applyLikeChanges") && done.compareAndSet(false, true)) {
+                        action.run();
+                    }
+                    try {
+                        return method.invoke(filmStorage, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.storageTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
+import ru.yandex.practicum.filmorate.dao.RatingRepository;
+import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.dao.mappers.RatingRowMapper;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GenreRepository.class, GenreRowMapper.class, RatingRepository.class, RatingRowMapper.class,
+        QueryMetrics.class})
+@Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class InMemoryFilmStorageTests {
+    private static final int USERS = 200;
+    private final GenreRepository genreRepository;
+    private final RatingRepository ratingRepository;
+    private InMemoryUserStorage userStorage;
+    private InMemoryFilmStorage filmStorage;
+
+    @BeforeEach
+    public void setUp() {
+        userStorage = new InMemoryUserStorage();
+        filmStorage = new InMemoryFilmStorage(userStorage, genreRepository, ratingRepository);
+        for (int i = 1; i <= USERS; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            userStorage.create(user);
+        }
+        filmStorage.create(film("Inception", 2L, 1L));
+        filmStorage.create(film("The Matrix"));
+        filmStorage.create(film("Arrival"));
+    }
+
+    @Test
+    public void testCreateResolvesReferencesAndDetachesCopies() {
+        Film found = filmStorage.findById(1).orElseThrow();
+
+        assertThat(found.getRating().getName()).isEqualTo("G");
+        assertThat(found.getGenres()).extracting(Genre::getName).containsExactly("Комедия", "Драма");
+
+        found.setName("Changed");
+        assertThat(filmStorage.findById(1).orElseThrow().getName()).isEqualTo("Inception");
+    }
+
+    @Test
+    public void testLikeValidation() {
+        filmStorage.addLike(1, 2);
+
+        assertThat(filmStorage.hasLike(1, 2)).isTrue();
+        assertThatThrownBy(() -> filmStorage.addLike(1, 2)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> filmStorage.addLike(99, 2)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> filmStorage.addLike(1, 999)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> filmStorage.removeLike(2, 2)).isInstanceOf(ValidationException.class);
+
+        filmStorage.removeLike(1, 2);
+        assertThat(filmStorage.getLikeCounts()).containsEntry(1L, 0L);
+    }
+
+    @Test
+    public void testLikeCountsAndUserDeletion() {
+        filmStorage.addLike(2, 1);
+        filmStorage.addLike(2, 2);
+        filmStorage.addLike(3, 1);
+
+        assertThat(filmStorage.getLikeCounts()).contains(entry(2L, 2L), entry(3L, 1L));
+
+        assertThat(userStorage.deleteById(1)).containsOnly(entry(2L, 1L), entry(3L, 0L));
+        assertThat(filmStorage.findById(3).orElseThrow().getLikeCount()).isZero();
+        assertThat(filmStorage.hasLike(2, 1)).isFalse();
+        assertThat(filmStorage.getLikeCounts()).contains(entry(2L, 1L), entry(3L, 0L));
+    }
+
+    @Test
+    public void testApplyLikeChangesSkipsMissingRows() {
+        filmStorage.addLike(1, 3);
+
+        assertThat(filmStorage.applyLikeChanges(
+                List.of(new FilmLike(1L, 1L), new FilmLike(1L, 1L), new FilmLike(99L, 1L), new FilmLike(2L, 999L)),
+                List.of(new FilmLike(1L, 3L))
+        )).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 1L, 2L, 0L));
+    }
+
+    @Test
+    public void testConcurrentLikesAreNotLost() throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (long userId = 1; userId <= USERS; userId++) {
+                long user = userId;
+                futures.add(executor.submit(() -> {
+                    filmStorage.addLike(1, user);
+                    filmStorage.addLike(2, user);
+                    filmStorage.removeLike(2, user);
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        assertThat(filmStorage.getLikeCounts()).containsEntry(1L, (long) USERS).containsEntry(2L, 0L);
+    }
+
+    private Film film(String name, Long... genreIds) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setRating(new Rating(1L, null));
+        Set<Genre> genres = new HashSet<>();
+        for (Long genreId : genreIds) {
+            genres.add(new Genre(genreId, null));
+        }
+        film.setGenres(genres);
+        return film;
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storageTests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("inmemory")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class InMemoryProfileTests {
+    private static final String FILM_JSON = "{\"name\": \"Arrival\", \"description\": \"Linguist meets heptapods\", "
+            + "\"releaseDate\": \"2016-09-01\", \"duration\": 116, \"mpa\": {\"id\": 2}, \"genres\": [{\"id\": 2}]}";
+    private final MockMvc mockMvc;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Test
+    public void testFullApiRunsWithoutTouchingTheDatabase() throws Exception {
+        assertThat(filmStorage).isInstanceOf(InMemoryFilmStorage.class);
+        assertThat(userStorage).isInstanceOf(InMemoryUserStorage.class);
+
+        for (String login : new String[]{"first", "second"}) {
+            mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(
+                            "{\"login\": \"%s\", \"email\": \"%s@example.com\", \"birthday\": \"1990-01-01\"}"
+                                    .formatted(login, login)))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM_JSON))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(put("/users/1/friends/2")).andExpect(status().isOk());
+        mockMvc.perform(put("/films/1/like/2")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/popular").param("count", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Arrival"))
+                .andExpect(jsonPath("$[0].mpa.name").value("PG"))
+                .andExpect(header().string("X-SQL-Count", "0"));
+        mockMvc.perform(get("/users/1/friends"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].login").value("second"))
+                .andExpect(header().string("X-SQL-Count", "0"));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.storageTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.pagination.KeysetPage;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryUserStorageTests {
+    private InMemoryUserStorage userStorage;
+
+    @BeforeEach
+    public void setUp() {
+        userStorage = new InMemoryUserStorage();
+        for (int i = 1; i <= 4; i++) {
+            userStorage.create(user("user" + i));
+        }
+    }
+
+    @Test
+    public void testCreateRejectsDuplicateLogin() {
+        assertThatThrownBy(() -> userStorage.create(user("user1")))
+                .isInstanceOf(ValidationException.class);
+        assertThat(userStorage.getAll()).extracting(User::getId).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    public void testFindAllByIdsPreservesOrderAndSkipsMissing() {
+        assertThat(userStorage.findAllByIds(List.of(3L, 99L, 1L))).extracting(User::getId).containsExactly(3L, 1L);
+    }
+
+    @Test
+    public void testFoundUserIsDetachedFromStorage() {
+        User found = userStorage.findById(1).orElseThrow();
+        found.setName("Changed");
+
+        assertThat(userStorage.findById(1)).hasValueSatisfying(user ->
+                assertThat(user.getName()).isEqualTo("user1"));
+    }
+
+    @Test
+    public void testFriendRequestsAndConfirmation() {
+        userStorage.sendFriendRequest(1, 2);
+        userStorage.sendFriendRequest(1, 3);
+        userStorage.confirmFriendship(1, 2);
+
+        assertThat(userStorage.getFriends(1)).extracting(User::getId).containsExactly(2L, 3L);
+        assertThat(userStorage.findById(1).orElseThrow().getFriends()).containsExactly(2L, 3L);
+        assertThat(userStorage.isFriendshipExists(2, 1)).isFalse();
+        assertThatThrownBy(() -> userStorage.sendFriendRequest(1, 2)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> userStorage.sendFriendRequest(1, 99)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> userStorage.confirmFriendship(2, 1)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    public void testCommonFriendsAndPages() {
+        userStorage.sendFriendRequest(1, 2);
+        userStorage.sendFriendRequest(1, 3);
+        userStorage.sendFriendRequest(1, 4);
+        userStorage.sendFriendRequest(2, 3);
+        userStorage.sendFriendRequest(2, 4);
+
+        assertThat(userStorage.getCommonFriends(1, 2)).extracting(User::getId).containsExactly(3L, 4L);
+        KeysetPage<User> first = userStorage.getFriendsPage(1, 0, 2);
+        assertThat(first.getItems()).extracting(User::getId).containsExactly(2L, 3L);
+        assertThat(first.getNextAfterId()).isEqualTo(3L);
+        KeysetPage<User> second = userStorage.getCommonFriendsPage(1, 2, 3, 2);
+        assertThat(second.getItems()).extracting(User::getId).containsExactly(4L);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void testDeleteRemovesFriendshipsInBothDirections() {
+        userStorage.sendFriendRequest(1, 2);
+        userStorage.sendFriendRequest(2, 1);
+
+        userStorage.deleteById(2);
+
+        assertThat(userStorage.existsById(2)).isFalse();
+        assertThat(userStorage.getFriendIds(1)).isEmpty();
+        assertThat(userStorage.isLoginExists("user2")).isFalse();
+    }
+
+    private User user(String login) {
+        User user = new User();
+        user.setName(login);
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
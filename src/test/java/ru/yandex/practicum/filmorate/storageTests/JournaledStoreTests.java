@@ -0,0 +1,280 @@
+package ru.yandex.practicum.filmorate.storageTests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.cache.FilmCache;
+import ru.yandex.practicum.filmorate.cache.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.dao.GenreRepository;
+import ru.yandex.practicum.filmorate.dao.QueryMetrics;
+import ru.yandex.practicum.filmorate.dao.RatingRepository;
+import ru.yandex.practicum.filmorate.dao.mappers.GenreRowMapper;
+import ru.yandex.practicum.filmorate.dao.mappers.RatingRowMapper;
+import ru.yandex.practicum.filmorate.dto.film.FilmDto;
+import ru.yandex.practicum.filmorate.exception.RepositoryException;
+import ru.yandex.practicum.filmorate.mapper.FilmMapper;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Rating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.memory.JournaledFilmStorage;
+import ru.yandex.practicum.filmorate.storage.memory.JournaledStore;
+import ru.yandex.practicum.filmorate.storage.memory.JournaledUserStorage;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GenreRepository.class, GenreRowMapper.class, RatingRepository.class, RatingRowMapper.class,
+        QueryMetrics.class})
+@Sql(scripts = {"/test_schema.sql", "/test_data.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class JournaledStoreTests {
+    private final GenreRepository genreRepository;
+    private final RatingRepository ratingRepository;
+    private final ObjectProvider<MeterRegistry> registry;
+    @TempDir
+    private Path root;
+    private Path directory;
+    private int runs;
+    private JournaledStore store;
+    private JournaledUserStorage userStorage;
+    private JournaledFilmStorage filmStorage;
+    private FilmCache filmCache;
+    private PopularFilmsIndex popularFilmsIndex;
+    private EntityVersions entityVersions;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createDirectory(root.resolve("run-" + runs++));
+        open();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void testJournalReplayRestoresState() throws IOException {
+        User alice = userStorage.create(user("alice"));
+        User bob = userStorage.create(user("bob"));
+        User carol = userStorage.create(user("carol"));
+        userStorage.sendFriendRequest(alice.getId(), bob.getId());
+        userStorage.confirmFriendship(alice.getId(), bob.getId());
+        userStorage.sendFriendRequest(alice.getId(), carol.getId());
+        Film inception = filmStorage.create(film("Inception", 2L, 1L));
+        Film matrix = filmStorage.create(film("The Matrix"));
+        filmStorage.addLike(inception.getId(), bob.getId());
+        filmStorage.addLike(inception.getId(), carol.getId());
+        filmStorage.addLike(matrix.getId(), carol.getId());
+        filmStorage.removeLike(matrix.getId(), carol.getId());
+        inception.setName("Inception (2010)");
+        filmStorage.update(inception);
+        userStorage.deleteById(carol.getId());
+
+        crashAndReopen();
+
+        assertThat(userStorage.getAll()).extracting(User::getLogin).containsExactly("alice", "bob");
+        assertThat(userStorage.isFriendshipExists(alice.getId(), bob.getId())).isTrue();
+        assertThat(userStorage.isFriendshipExists(alice.getId(), carol.getId())).isFalse();
+        Film restored = filmStorage.findById(inception.getId()).orElseThrow();
+        assertThat(restored.getName()).isEqualTo("Inception (2010)");
+        assertThat(restored.getGenres()).extracting(Genre::getName).containsExactly("Комедия", "Драма");
+        assertThat(restored.getLikeCount()).isEqualTo(1);
+        assertThat(filmStorage.hasLike(matrix.getId(), carol.getId())).isFalse();
+        assertThat(userStorage.create(user("dave")).getId()).isEqualTo(4);
+    }
+
+    @Test
+    public void testSnapshotCompactsJournal() throws IOException {
+        User alice = userStorage.create(user("alice"));
+        Film inception = filmStorage.create(film("Inception"));
+        filmStorage.addLike(inception.getId(), alice.getId());
+
+        store.snapshot();
+        Film matrix = filmStorage.create(film("The Matrix"));
+        filmStorage.addLike(matrix.getId(), alice.getId());
+        crashAndReopen();
+
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(files("journal-")).hasSize(1);
+        assertThat(filmStorage.getAll()).extracting(Film::getName).containsExactly("Inception", "The Matrix");
+        assertThat(filmStorage.getLikeCounts()).containsEntry(inception.getId(), 1L).containsEntry(matrix.getId(), 1L);
+    }
+
+    @Test
+    public void testTornTailIsTruncated() throws IOException {
+        userStorage.create(user("alice"));
+        store.close();
+        Path segment = files("journal-").get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        open();
+        userStorage.create(user("bob"));
+        crashAndReopen();
+
+        assertThat(userStorage.getAll()).extracting(User::getLogin).containsExactly("alice", "bob");
+    }
+
+    @Test
+    public void testConcurrentLikesAreDurable() throws Exception {
+        int users = 100;
+        Film film = filmStorage.create(film("Inception"));
+        for (int i = 0; i < users; i++) {
+            userStorage.create(user("user" + i));
+        }
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long userId = 1; userId <= users; userId++) {
+                long liker = userId;
+                futures.add(executor.submit(() -> filmStorage.addLike(film.getId(), liker)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        crashAndReopen();
+
+        assertThat(filmStorage.findById(film.getId()).orElseThrow().getLikeCount()).isEqualTo(users);
+    }
+
+    @Test
+    public void testFailedWriteRollsBackMemoryAndRecovers() throws Exception {
+        User alice = userStorage.create(user("alice"));
+        closeJournalChannel();
+
+        assertThatThrownBy(() -> userStorage.create(user("bob"))).isInstanceOf(RepositoryException.class);
+        assertThat(userStorage.getAll()).extracting(User::getLogin).containsExactly("alice");
+
+        User carol = userStorage.create(user("carol"));
+        filmStorage.addLike(filmStorage.create(film("Inception")).getId(), carol.getId());
+        crashAndReopen();
+
+        assertThat(carol.getId()).isEqualTo(alice.getId() + 1);
+        assertThat(userStorage.getAll()).extracting(User::getLogin).containsExactly("alice", "carol");
+        assertThat(filmStorage.getLikeCounts()).containsEntry(1L, 1L);
+    }
+
+    @Test
+    public void testFailedWriteDropsReaderCaches() throws Exception {
+        Film first = filmStorage.create(film("Inception"));
+        Film second = filmStorage.create(film("Memento"));
+        User alice = userStorage.create(user("alice"));
+        popularFilmsIndex.reload();
+        AtomicInteger loads = new AtomicInteger();
+        filmCache.get(second.getId(), id -> load(id, loads));
+        popularFilmsIndex.increment(second.getId());
+        String tag = entityVersions.filmTag(second.getId());
+        closeJournalChannel();
+
+        assertThatThrownBy(() -> filmStorage.addLike(second.getId(), alice.getId()))
+                .isInstanceOf(RepositoryException.class);
+
+        filmCache.get(second.getId(), id -> load(id, loads));
+        assertThat(loads).hasValue(2);
+        assertThat(popularFilmsIndex.top(2)).containsExactly(first.getId(), second.getId());
+        assertThat(entityVersions.filmTag(second.getId())).isNotEqualTo(tag);
+    }
+
+    private FilmDto load(long id, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return FilmMapper.mapToFilmDto(filmStorage.findById(id).orElseThrow());
+    }
+
+    private void closeJournalChannel() throws ReflectiveOperationException, IOException {
+        Field journalField = JournaledStore.class.getDeclaredField("journal");
+        journalField.setAccessible(true);
+        Object journal = journalField.get(store);
+        Field channelField = journal.getClass().getDeclaredField("channel");
+        channelField.setAccessible(true);
+        ((FileChannel) channelField.get(journal)).close();
+    }
+
+    private void open() throws IOException {
+        InMemoryUserStorage users = new InMemoryUserStorage();
+        InMemoryFilmStorage films = new InMemoryFilmStorage(users, genreRepository, ratingRepository);
+        store = new JournaledStore(users, films, registry, event -> {
+            filmCache.invalidateAll();
+            popularFilmsIndex.reload();
+            entityVersions.resetEpoch();
+        }, directory, true, 64);
+        store.recover();
+        userStorage = new JournaledUserStorage(users, store);
+        filmStorage = new JournaledFilmStorage(films, store);
+        filmCache = new FilmCache(genreRepository, ratingRepository, registry, 1 << 20);
+        popularFilmsIndex = new PopularFilmsIndex(filmStorage);
+        entityVersions = new EntityVersions(genreRepository, ratingRepository);
+    }
+
+    private void crashAndReopen() throws IOException {
+        Path crashed = Files.createDirectory(root.resolve("run-" + runs++));
+        for (Path file : files("")) {
+            Files.copy(file, crashed.resolve(file.getFileName()));
+        }
+        store.close();
+        directory = crashed;
+        open();
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    private User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private Film film(String name, Long... genreIds) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setRating(new Rating(1L, null));
+        Set<Genre> genres = new HashSet<>();
+        for (Long genreId : genreIds) {
+            genres.add(new Genre(genreId, null));
+        }
+        film.setGenres(genres);
+        return film;
+    }
+}